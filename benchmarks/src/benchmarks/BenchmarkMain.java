@@ -0,0 +1,32 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Class BenchmarkMain. Runs the benchmarks with the GC profiler, so every
+ * result comes with its allocation rate (gc.alloc.rate.norm is bytes per operation).
+ *
+ * Run from the repository root, with the game sources, JMH and its annotation
+ * processor on the classpath. The optional argument is a regular expression
+ * selecting benchmarks, e.g. "CommandBenchmark.interpret".
+ */
+public class BenchmarkMain {
+
+    /**
+     * The main method.
+     *
+     * @param args optional benchmark name pattern
+     * @throws RunnerException if JMH fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "benchmarks\\..*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,162 @@
+package benchmarks;
+
+import AdventureModel.AdventureGame;
+import AdventureModel.CommandTokenizer;
+import AdventureModel.Player;
+import commands.DropAll;
+import commands.TakeAll;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class CommandBenchmark. Measures the command hot path of the model:
+ * tokenizing, interpreting, moving, taking and dropping.
+ *
+ * Every benchmark leaves the game as it found it (or alternates between
+ * two states), so iterations measure the same work.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandBenchmark {
+
+    /**
+     * The world to run against.
+     */
+    @Param({"TinyGame", "large"})
+    public String world;
+
+    /**
+     * The game being played.
+     */
+    private AdventureGame game;
+
+    /**
+     * The player of the game.
+     */
+    private Player player;
+
+    /**
+     * The name of an object that starts in room 1.
+     */
+    private String objectName;
+
+    /**
+     * A TAKE command using a synonym, for the tokenizer benchmarks.
+     */
+    private String takeCommand;
+
+    /**
+     * A move out of room 1 and the move back, for each world.
+     */
+    private String out, back;
+
+    /**
+     * Alternates between the two moves.
+     */
+    private boolean away;
+
+    /**
+     * Load the game once per trial.
+     *
+     * @throws IOException if the world cannot be written
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        game = WorldFixtures.load(world);
+        player = game.getPlayer();
+        if (world.equals("TinyGame")) {
+            objectName = "BIRD";
+            out = "WEST";
+            back = "EAST";
+        } else {
+            objectName = "OBJ" + (WorldFixtures.LARGE_OBJECTS / 2);
+            out = "EAST";
+            back = "WEST";
+        }
+        takeCommand = "grab " + objectName.toLowerCase();
+        game.getTokenizer(); // build the tokenizer outside the measurement
+    }
+
+    /**
+     * Tokenize a two word command with a synonym.
+     *
+     * @return the tokens
+     */
+    @Benchmark
+    public CommandTokenizer.Tokens tokenize() {
+        return game.getTokenizer().tokenize(takeCommand);
+    }
+
+    /**
+     * Tokenize a two word command with the String[] API.
+     *
+     * @return the tokens
+     */
+    @Benchmark
+    public String[] tokenizeArray() {
+        return game.tokenize(takeCommand);
+    }
+
+    /**
+     * Interpret a motion command, walking back and forth.
+     *
+     * @return the reply
+     */
+    @Benchmark
+    public String interpretMove() {
+        away = !away;
+        return game.interpretAction(away ? out : back);
+    }
+
+    /**
+     * Interpret a command the game does not understand.
+     *
+     * @return the reply
+     */
+    @Benchmark
+    public String interpretInvalid() {
+        return game.interpretAction("dance wildly");
+    }
+
+    /**
+     * Move directly, walking back and forth.
+     *
+     * @return false if the move ended the game
+     */
+    @Benchmark
+    public boolean movePlayer() {
+        away = !away;
+        return game.movePlayer(away ? out : back);
+    }
+
+    /**
+     * Take an object from room 1 and drop it again.
+     *
+     * @return true if the object was taken
+     */
+    @Benchmark
+    public boolean takeThenDrop() {
+        boolean taken = player.takeObject(objectName);
+        player.dropObject(objectName);
+        return taken;
+    }
+
+    /**
+     * Take every object in room 1 and drop them all again.
+     *
+     * @return the number of objects moved
+     */
+    @Benchmark
+    public int takeAllThenDropAll() {
+        new TakeAll(game).execute();
+        int taken = player.inventory.size();
+        new DropAll(game).execute();
+        return taken;
+    }
+}
@@ -0,0 +1,159 @@
+package benchmarks;
+
+import AdventureModel.AdventureGame;
+import AdventureModel.LoadOptions;
+import AdventureModel.SaveCodec;
+import AdventureModel.World;
+import AdventureModel.WorldPack;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.lang.ref.Reference;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class PersistenceBenchmark. Measures how long it takes to load a world
+ * from its text files, and to save and restore a game.
+ *
+ * The retained heap of a loaded world and of one session on it, and the
+ * size of a save file, are not timings, so they are measured once per
+ * trial and printed at the end of it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    /**
+     * The world to run against: "TinyGame" or a number of rooms for tools.WorldGenerator.
+     */
+    @Param({"TinyGame", "1000", "10000", "100000"})
+    public String world;
+
+    /**
+     * How the world is loaded: "eager" (the default), "lazy" descriptions,
+     * "parallel" files, or a compiled world "pack".
+     */
+    @Param({"eager", "lazy", "parallel", "pack"})
+    public String loading;
+
+    /**
+     * The game directory.
+     */
+    private File directory;
+
+    /**
+     * A loaded game, to save.
+     */
+    private AdventureGame game;
+
+    /**
+     * The file games are saved to.
+     */
+    private File saveFile;
+
+    /**
+     * Write the world and a save file once per trial, and measure their footprint.
+     *
+     * @throws IOException if the files cannot be written
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (world.equals("TinyGame")) {
+            directory = WorldFixtures.directory(world);
+        } else {
+            directory = WorldFixtures.generate(Integer.parseInt(world));
+        }
+        if (loading.equals("pack")) {
+            if (world.equals("TinyGame")) directory = WorldFixtures.copy(directory); // keep the source tree clean
+            WorldPack.compile(directory).deleteOnExit();
+        }
+        saveFile = Files.createTempFile("adventure-save", ".ser").toFile();
+        saveFile.deleteOnExit();
+
+        World.clearLoaded(); // each trial loads its world with its own options
+        game = new AdventureGame(directory, options()); // also loads the classes before measuring
+        // small worlds are lost in GC noise, so measure several copies and divide
+        World[] worlds = new World[Math.min(64, Math.max(1, 100_000 / game.getRooms().size()))];
+        long before = usedHeap();
+        for (int i = 0; i < worlds.length; i++) worlds[i] = World.read(directory, options());
+        long worldHeap = (usedHeap() - before) / worlds.length;
+        Reference.reachabilityFence(worlds);
+        worlds = null;
+
+        // sessions share the world, so each one only costs its own state
+        AdventureGame[] sessions = new AdventureGame[1000];
+        before = usedHeap();
+        for (int i = 0; i < sessions.length; i++) sessions[i] = new AdventureGame(game.getWorld());
+        long sessionHeap = (usedHeap() - before) / sessions.length;
+        Reference.reachabilityFence(sessions);
+
+        game.saveModel(saveFile);
+        System.out.println();
+        System.out.println("[" + world + ", " + loading + "] world heap: " + worldHeap + " bytes, session heap: "
+                + sessionHeap + " bytes, save file: " + saveFile.length() + " bytes");
+    }
+
+    /**
+     * Load the world from its text files, or from its pack,
+     * without sharing it.
+     *
+     * @return the loaded world
+     * @throws IOException if the files cannot be read
+     */
+    @Benchmark
+    public World loadWorld() throws IOException {
+        return World.read(directory, options());
+    }
+
+    /**
+     * Returns the load options for the loading parameter.
+     *
+     * @return the load options
+     */
+    private LoadOptions options() {
+        return LoadOptions.defaults()
+                .setLazyDescriptions(loading.equals("lazy"))
+                .setParallel(loading.equals("parallel"))
+                .setUsePack(loading.equals("pack"));
+    }
+
+    /**
+     * Save the game, as saveModel does.
+     *
+     * @return the size of the save file
+     */
+    @Benchmark
+    public long save() {
+        game.saveModel(saveFile);
+        return saveFile.length();
+    }
+
+    /**
+     * Restore the game from its save file, as LoadView does.
+     *
+     * @return the restored game
+     * @throws IOException if the file cannot be read
+     */
+    @Benchmark
+    public AdventureGame restore() throws IOException {
+        return SaveCodec.read(saveFile);
+    }
+
+    /**
+     * Returns the heap in use after a full collection.
+     *
+     * @return used heap in bytes
+     */
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
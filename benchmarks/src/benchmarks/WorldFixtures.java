@@ -0,0 +1,137 @@
+package benchmarks;
+
+import AdventureModel.AdventureGame;
+import tools.WorldGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+
+/**
+ * Class WorldFixtures. Finds or builds the game directories the benchmarks run against.
+ *
+ * "TinyGame" is the bundled game. "large" is a generated ring of rooms joined
+ * by EAST/WEST passages, with every object piled into room 1 so TAKE/DROP and
+ * TAKE ALL/DROP ALL work on a crowded room.
+ */
+public class WorldFixtures {
+
+    /**
+     * The directory holding the bundled games, relative to the repository root.
+     * Override with -Dgames.dir=... when running from elsewhere.
+     */
+    static final String GAMES_DIR = System.getProperty("games.dir", "src/Games");
+
+    /**
+     * Number of rooms in the large world.
+     */
+    static final int LARGE_ROOMS = 10_000;
+
+    /**
+     * Number of objects in room 1 of the large world.
+     */
+    static final int LARGE_OBJECTS = 500;
+
+    /**
+     * Loads a game for a benchmark.
+     *
+     * @param world "TinyGame" or "large"
+     * @return the loaded game
+     * @throws IOException if the large world cannot be written
+     */
+    static AdventureGame load(String world) throws IOException {
+        return new AdventureGame(directory(world));
+    }
+
+    /**
+     * Returns the directory of a game for a benchmark, writing it first if needed.
+     *
+     * @param world "TinyGame" or "large"
+     * @return the game directory
+     * @throws IOException if the large world cannot be written
+     */
+    static File directory(String world) throws IOException {
+        if (world.equals("large")) return writeRing(LARGE_ROOMS, LARGE_OBJECTS);
+        return new File(GAMES_DIR, world);
+    }
+
+    /**
+     * Generates a world with tools.WorldGenerator in a temporary directory.
+     * The seed is fixed, so every run measures the same world.
+     *
+     * @param rooms number of rooms in the ring
+     * @return the game directory
+     * @throws IOException if the files cannot be written
+     */
+    static File generate(int rooms) throws IOException {
+        File dir = Files.createTempDirectory("adventure-generated").toFile();
+        dir.deleteOnExit();
+        new WorldGenerator(rooms, 4, 0.1, Math.max(1, rooms / 100), 3, Math.max(1, rooms / 10), 200, 207).generate(dir);
+        for (File f : dir.listFiles()) f.deleteOnExit();
+        return dir;
+    }
+
+    /**
+     * Copies a game directory to a temporary directory, so that files
+     * can be added to it without touching the source tree.
+     *
+     * @param directory the game directory
+     * @return the copy
+     * @throws IOException if the files cannot be copied
+     */
+    static File copy(File directory) throws IOException {
+        File dir = Files.createTempDirectory("adventure-copy").toFile();
+        dir.deleteOnExit();
+        for (File f : directory.listFiles(File::isFile)) {
+            File target = new File(dir, f.getName());
+            Files.copy(f.toPath(), target.toPath());
+            target.deleteOnExit();
+        }
+        return dir;
+    }
+
+    /**
+     * Writes a ring world to a temporary directory.
+     *
+     * @param rooms number of rooms
+     * @param objects number of objects, all placed in room 1
+     * @return the game directory
+     * @throws IOException if the files cannot be written
+     */
+    static File writeRing(int rooms, int objects) throws IOException {
+        File dir = Files.createTempDirectory("adventure-ring").toFile();
+        dir.deleteOnExit();
+        try (PrintWriter out = new PrintWriter(new File(dir, "rooms.txt"))) {
+            for (int r = 1; r <= rooms; r++) {
+                out.println(r);
+                out.println("Room " + r);
+                out.println("You are in room " + r + " of a long ring of identical rooms.");
+                out.println("-----");
+                out.println("EAST       " + (r % rooms + 1));
+                out.println("WEST       " + ((r + rooms - 2) % rooms + 1));
+                out.println("XYZZY      1/OBJ0");
+                out.println("XYZZY      " + r);
+                if (r < rooms) out.println();
+            }
+        }
+        try (PrintWriter out = new PrintWriter(new File(dir, "objects.txt"))) {
+            for (int o = 0; o < objects; o++) {
+                out.println("OBJ" + o);
+                out.println("object number " + o);
+                out.print(1);
+                if (o < objects - 1) out.println("\n");
+            }
+        }
+        try (PrintWriter out = new PrintWriter(new File(dir, "synonyms.txt"))) {
+            out.println("E=EAST");
+            out.println("W=WEST");
+            out.println("GRAB=TAKE");
+        }
+        try (PrintWriter out = new PrintWriter(new File(dir, "help.txt"))) {
+            out.println("Walk EAST or WEST around the ring.");
+        }
+        for (File f : dir.listFiles()) f.deleteOnExit();
+        return dir;
+    }
+}
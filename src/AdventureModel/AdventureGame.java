@@ -5,40 +5,70 @@ import java.util.*;
 
 /**
  * Class AdventureGame.  Handles all the necessary tasks to run the Adventure game.
+ *
+ * An AdventureGame is one session of play on a World. The World holds
+ * everything that never changes and may be shared with other sessions;
+ * the session only holds what this player changed: the player's room
+ * and inventory, the objects of the rooms the player took from or
+ * dropped into, and the rooms visited. A saved game holds just that,
+ * and finds its World again when it is loaded.
  */
 public class AdventureGame implements Serializable {
 
     /**
-     * An attribute to store the Introductory text of the game.
+     * The directory the game files live in, which is all a save needs to find the World again.
      */
     private final String directoryName;
 
     /**
-     * A variable to store the Help text of the game.
-     * This text is displayed when the user types "HELP" command.
+     * The rooms, passages, objects, synonyms and help text of the game,
+     * possibly shared with other sessions.
      */
-    private String helpText;
+    private transient World world;
 
     /**
-     * A list of all the rooms in the game.
+     * The objects in each room the player has changed, by room number.
+     * Any other room still holds the objects the World starts it with.
      */
-    private final HashMap<Integer, Room> rooms;
+    private transient HashMap<Integer, ObjectContainer> changedRooms;
 
     /**
-     * A HashMap to store synonyms of commands.
+     * The visited rooms whose numbers fall in the dense part of the
+     * room table, by room number; see RoomTable.isDense.
      */
-    private HashMap<String,String> synonyms = new HashMap<>();
+    private transient BitSet visited;
 
     /**
-     * List of action verbs (other than motions) that exist in all games.
+     * The numbers of the other visited rooms (negative or very large numbers).
+     */
+    private transient HashSet<Integer> visitedSparse;
+
+    /**
+     * The action verbs (other than motions) of the game.
      * Motion vary depending on the room and game.
      */
-    private final String[] actionVerbs = {"QUIT","INVENTORY","TAKE","DROP"};
+    private transient VerbRegistry verbs;
 
     /**
      * The Player of the game.
      */
-    public Player player;
+    public transient Player player;
+
+    /**
+     * How long the game was played before this session started, in milliseconds.
+     */
+    private transient long playTimeBefore;
+
+    /**
+     * When this session started, as System.currentTimeMillis().
+     */
+    private transient long playingSince;
+
+    /**
+     * Splits commands into words and resolves synonyms.
+     * Built on first use from the loaded game.
+     */
+    private transient CommandTokenizer tokenizer;
 
     /**
      * Adventure Game Constructor
@@ -48,45 +78,106 @@ public class AdventureGame implements Serializable {
      * @param name the name of the adventure
      */
     public AdventureGame(String name){
-        this.synonyms = new HashMap<>();
-        this.rooms = new HashMap<>();
-        this.directoryName = "Games/" + name; //all games files are in the Games directory!
+        this(new File("Games/" + name)); //all games files are in the Games directory!
+    }
+
+    /**
+     * Adventure Game Constructor
+     * __________________________
+     * Initializes attributes from a game directory anywhere on disk,
+     * e.g. a generated world used by tests or benchmarks.
+     *
+     * @param directory the directory in which game files live
+     */
+    public AdventureGame(File directory){
+        this(directory, LoadOptions.defaults());
+    }
+
+    /**
+     * Adventure Game Constructor
+     * __________________________
+     * Initializes attributes from a game directory. The world is shared
+     * with other sessions on the same directory; if it is not loaded yet,
+     * it is loaded with the given options (e.g. lazy room descriptions
+     * for huge worlds).
+     *
+     * @param directory the directory in which game files live
+     * @param options how the game files are loaded
+     */
+    public AdventureGame(File directory, LoadOptions options){
+        this(loadWorld(directory, options));
+    }
+
+    /**
+     * Adventure Game Constructor
+     * __________________________
+     * Starts a new session on a world that is already loaded.
+     *
+     * @param world the world to play
+     */
+    public AdventureGame(World world){
+        this.world = world;
+        this.directoryName = world.getDirectoryName();
+        setUpGame();
+    }
+
+    /**
+     * Loads the shared world of a directory for a constructor.
+     *
+     * @param directory the directory in which game files live
+     * @param options how the game files are loaded
+     * @return the world
+     */
+    private static World loadWorld(File directory, LoadOptions options) {
         try {
-            setUpGame();
+            return World.load(directory, options);
         } catch (IOException e) {
             throw new RuntimeException("An Error Occurred: " + e.getMessage());
         }
     }
 
     /**
-     * Save the current state of the game to a file
+     * Save the current state of the game to a file.
+     * The file is replaced in one step, so it is never left half written.
      *
      * @param file pointer to file to write to
      */
     public void saveModel(File file) {
         try {
-            FileOutputStream outfile = new FileOutputStream(file);
-            ObjectOutputStream oos = new ObjectOutputStream(outfile);
-            oos.writeObject(this);
+            AutoSaver.writeAtomically(file, snapshot());
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * setUpGame
+     * snapshot
      * __________________________
+     * The current state of the game, as saveModel writes it (see
+     * SaveCodec). Only what the player changed is in it, so this is
+     * quick enough to call on every move; the bytes can then be
+     * written on another thread.
      *
-     * @throws IOException in the case of a file I/O error
+     * @return the saved game, as bytes
      */
-    public void setUpGame() throws IOException {
+    public byte[] snapshot() {
+        return SaveCodec.encode(this);
+    }
 
-        String directoryName = this.directoryName;
-        AdventureLoader loader = new AdventureLoader(this, directoryName);
-        loader.loadGame();
+    /**
+     * setUpGame
+     * __________________________
+     * Starts the game over: the player is in room 1 with nothing,
+     * and every object is where the world starts it.
+     */
+    public void setUpGame() {
+        this.changedRooms = new HashMap<>();
+        this.visited = new BitSet();
+        this.visitedSparse = new HashSet<>();
+        setPlayTimeMillis(0);
 
         // set up the player's current location
-        this.player = new Player(this.rooms.get(1));
+        this.player = new Player(this.world.getStartRoom(), this);
     }
 
     /**
@@ -95,21 +186,61 @@ public class AdventureGame implements Serializable {
      *
      * @param input string from the command line
      * @return a string array of tokens that represents the command.
+     * @see #getTokenizer() for a version that does not allocate an array
      */
     public String[] tokenize(String input){
+        return getTokenizer().tokenize(input).toArray();
+    }
 
-        input = input.toUpperCase();
-        String[] commandArray = input.split(" ");
-
-        int i = 0;
-        while (i < commandArray.length) {
-            if(this.synonyms.containsKey(commandArray[i])){
-                commandArray[i] = this.synonyms.get(commandArray[i]);
-            }
-            i++;
+    /**
+     * getTokenizer
+     * __________________________
+     * Returns the tokenizer for this game. It knows every symbol and synonym
+     * in the game, so resolving verbs, directions and object names allocates nothing.
+     *
+     * @return the tokenizer for this game
+     */
+    public CommandTokenizer getTokenizer() {
+        if (this.tokenizer == null) {
+            this.tokenizer = this.world.newTokenizer();
+            for (String verb : getVerbs().words()) this.tokenizer.addLocalWord(verb); // only verbs this session registered are new
         }
-        return commandArray;
+        return this.tokenizer;
+    }
+
+    /**
+     * getVerbs
+     * __________________________
+     * Returns the action verbs of this game, starting with the standard ones.
+     *
+     * @return the verb registry of this game
+     */
+    public VerbRegistry getVerbs() {
+        if (this.verbs == null) this.verbs = VerbRegistry.standard();
+        return this.verbs;
+    }
 
+    /**
+     * registerVerb
+     * __________________________
+     * Adds an action verb to this game.
+     *
+     * @param verb the verb, in upper case
+     * @param handler the handler for the verb
+     */
+    public void registerVerb(String verb, Verb handler) {
+        getVerbs().register(verb, handler);
+        getTokenizer().addLocalWord(verb);
+    }
+
+    /**
+     * getSymbols
+     * __________________________
+     * Getter method for the symbol table
+     * @return the symbols of every direction, verb and object name in the game
+     */
+    public SymbolTable getSymbols() {
+        return this.world.getSymbols();
     }
 
     /**
@@ -122,84 +253,88 @@ public class AdventureGame implements Serializable {
      * @return false, if move results in death or a win (and game is over).  Else, true.
      */
     public boolean movePlayer(String direction) {
+        return movePlayer(getSymbols().lookup(direction.toUpperCase()));
+    }
 
-        direction = direction.toUpperCase();
-        PassageTable motionTable = this.player.getCurrentRoom().getMotionTable(); //where can we move?
-        if (!motionTable.optionExists(direction)) return true; //no move
+    /**
+     * movePlayer
+     * __________________________
+     * Moves the player in the direction with the given symbol, if possible.
+     * Return false if the player wins or dies as a result of the move.
+     *
+     * @param directionSymbol the symbol of the move command
+     * @return false, if move results in death or a win (and game is over).  Else, true.
+     */
+    public boolean movePlayer(int directionSymbol) {
 
-        ArrayList<Passage> possibilities = new ArrayList<>();
-        for (Passage entry : motionTable.getDirection()) {
-            if (entry.getDirection().equals(direction)) { //this is the right direction
-                possibilities.add(entry); // are there possibilities?
-            }
-        }
+        PassageTable motionTable = this.player.getCurrentRoom().getMotionTable(); //where can we move?
+        Passage[] possibilities = motionTable.getPassages(directionSymbol); //are there possibilities?
+        if (possibilities == null) return true; //no move
 
-        //try the blocked passages first
+        //the blocked passages come first
         Passage chosen = null;
         for (Passage entry : possibilities) {
-            System.out.println(entry.getIsBlocked());
-            System.out.println(entry.getKeyName());
-
-            if (chosen == null && entry.getIsBlocked()) {
-                if (this.player.getInventory().contains(entry.getKeyName())) {
-                    chosen = entry; //we can make it through, given our stuff
-                    break;
-                }
-            } else { chosen = entry; } //the passage is unlocked
+            if (!entry.getIsBlocked() || this.player.hasObject(entry.getKeyId())) {
+                chosen = entry; //we can make it through, given our stuff
+                break;
+            }
         }
 
         if (chosen == null) return true; //doh, we just can't move.
 
         int roomNumber = chosen.getDestinationRoom();
-        Room room = this.rooms.get(roomNumber);
+        Room room = this.world.getRooms().get(roomNumber);
+        visit(this.player.getCurrentRoom()); // the room is left, so next time the player is back
         this.player.setCurrentRoom(room);
 
-        return !this.player.getCurrentRoom().getMotionTable().getDirection().get(0).getDirection().equals("FORCED");
+        return !this.player.getCurrentRoom().getMotionTable().isForced();
     }
 
     /**
-     * interpretAction
-     * interpret the user's action.
+     * execute
+     * __________________________
+     * Carry out the user's command. Motion verbs of the current room
+     * come first, then the action verbs of the game.
      *
      * @param command String representation of the command.
-     * @return String representation of interpretation of user's action.
+     * @return the outcome of the command
      */
-    public String interpretAction(String command){
+    public CommandResult execute(String command){
 
-        String[] inputArray = tokenize(command); //look up synonyms
+        CommandTokenizer.Tokens inputArray = getTokenizer().tokenize(command); //look up synonyms
+        if (inputArray.size() == 0) return CommandResult.INVALID;
+        String verb = inputArray.get(0);
 
         PassageTable motionTable = this.player.getCurrentRoom().getMotionTable(); //where can we move?
 
-        if (motionTable.optionExists(inputArray[0])) {
-            if (!movePlayer(inputArray[0])) {
+        if (motionTable.optionExists(inputArray.symbol(0))) {
+            if (!movePlayer(inputArray.symbol(0))) {
                 if (this.player.getCurrentRoom().getMotionTable().getDirection().get(0).getDestinationRoom() == 0)
-                    return "GAME OVER";
-                else return "FORCED";
+                    return CommandResult.GAME_OVER;
+                else return CommandResult.FORCED;
             } //something is up here! We are dead or we won.
-            return null;
-        } else if(Arrays.asList(this.actionVerbs).contains(inputArray[0])) {
-            if(inputArray[0].equals("QUIT")) { return "GAME OVER"; } //time to stop!
-            // INVENTORY case removed
-            else if(inputArray[0].equals("TAKE") && inputArray.length < 2) return "THE TAKE COMMAND REQUIRES AN OBJECT";
-            else if(inputArray[0].equals("DROP") && inputArray.length < 2) return "THE DROP COMMAND REQUIRES AN OBJECT";
-            else if(inputArray[0].equals("TAKE") && inputArray.length == 2) {
-                if(this.player.getCurrentRoom().checkIfObjectInRoom(inputArray[1])) {
-                    this.player.takeObject(inputArray[1]);
-                    return "YOU HAVE TAKEN:\n " + inputArray[1];
-                } else {
-                    return "THIS OBJECT IS NOT HERE:\n " + inputArray[1];
-                }
-            }
-            else if(inputArray[0].equals("DROP") && inputArray.length == 2) {
-                if(this.player.checkIfObjectInInventory(inputArray[1])) {
-                    this.player.dropObject(inputArray[1]);
-                    return "YOU HAVE DROPPED:\n " + inputArray[1];
-                } else {
-                    return "THIS OBJECT IS NOT IN YOUR INVENTORY:\n " + inputArray[1];
-                }
-            }
+            return CommandResult.MOVED;
+        }
+
+        Verb handler = getVerbs().get(verb);
+        return handler == null ? CommandResult.INVALID : handler.execute(this, inputArray);
+    }
+
+    /**
+     * interpretAction
+     * interpret the user's action.
+     *
+     * @param command String representation of the command.
+     * @return String representation of interpretation of user's action.
+     */
+    public String interpretAction(String command){
+        CommandResult result = execute(command);
+        switch (result.getType()) {
+            case MOVED: return null;
+            case FORCED: return "FORCED";
+            case GAME_OVER: return "GAME OVER";
+            default: return result.getText();
         }
-        return "INVALID COMMAND.";
     }
 
     /**
@@ -219,7 +354,7 @@ public class AdventureGame implements Serializable {
      * @return helpText
      */
     public String getInstructions() {
-        return helpText;
+        return this.world.getHelpText();
     }
 
     /**
@@ -238,29 +373,228 @@ public class AdventureGame implements Serializable {
      * Getter method for rooms 
      * @return map of key value pairs (integer to room)
      */
-    public HashMap<Integer, Room> getRooms() {
-        return this.rooms;
+    public RoomTable getRooms() {
+        return this.world.getRooms();
     }
 
     /**
      * getSynonyms
      * __________________________
      * Getter method for synonyms 
-     * @return map of key value pairs (synonym to command)
+     * @return map of key value pairs (synonym to command), read only
+     */
+    public Map<String, String> getSynonyms() {
+        return this.world.getSynonyms();
+    }
+
+    /**
+     * getObjectId
+     * __________________________
+     * Returns the ID of the object with the given name.
+     *
+     * @param objectName the name of the object
+     * @return the ID of the object, or -1 if there is no such object
+     */
+    public int getObjectId(String objectName) {
+        return this.world.getObjectId(objectName);
+    }
+
+    /**
+     * getWorld
+     * __________________________
+     * Getter method for the world this session plays
+     * @return the world, possibly shared with other sessions
+     */
+    public World getWorld() {
+        return this.world;
+    }
+
+    /**
+     * getObjectsInRoom
+     * __________________________
+     * Returns the objects in a room now. The result must not be changed;
+     * use changeObjectsInRoom for that.
+     *
+     * @param room a room of this game
+     * @return the objects in the room
+     */
+    public ObjectContainer getObjectsInRoom(Room room) {
+        ObjectContainer changed = this.changedRooms.get(room.getRoomNumber());
+        return changed != null ? changed : room.objectsInRoom;
+    }
+
+    /**
+     * changeObjectsInRoom
+     * __________________________
+     * Returns the objects in a room, for this session to change. The first
+     * time a room is changed, the objects the World starts it with are copied.
+     *
+     * @param room a room of this game
+     * @return the objects in the room, which may be changed
+     */
+    public ObjectContainer changeObjectsInRoom(Room room) {
+        return this.changedRooms.computeIfAbsent(room.getRoomNumber(), number -> new ObjectContainer(room.objectsInRoom));
+    }
+
+    /**
+     * getObjectString
+     * __________________________
+     * Returns a comma delimited list of every
+     * object's description that is in the given room now,
+     * e.g. "a can of tuna, a beagle, a lamp".
+     *
+     * @param room a room of this game
+     * @return delimited string of object descriptions
+     */
+    public String getObjectString(Room room) {
+        StringBuilder objects = new StringBuilder();
+        for (AdventureObject obj : getObjectsInRoom(room)) {
+            if (objects.length() > 0) objects.append(", ");
+            objects.append(obj.getDescription());
+        }
+        return objects.toString();
+    }
+
+    /**
+     * isVisited
+     * __________________________
+     * Checks if a room has been visited in this session. A room counts as
+     * visited once the player has left it, so while the player is in a
+     * room for the first time it is not visited yet.
+     *
+     * @param room a room of this game
+     * @return true if the room was visited
+     */
+    public boolean isVisited(Room room) {
+        int number = room.getRoomNumber();
+        return getRooms().isDense(number) ? this.visited.get(number) : this.visitedSparse.contains(number);
+    }
+
+    /**
+     * visit
+     * __________________________
+     * Marks a room as visited in this session. movePlayer does this
+     * for every room the player leaves.
+     *
+     * @param room a room of this game
+     */
+    public void visit(Room room) {
+        int number = room.getRoomNumber();
+        if (getRooms().isDense(number)) this.visited.set(number);
+        else this.visitedSparse.add(number);
+    }
+
+    /**
+     * getChangedRooms
+     * __________________________
+     * Returns the rooms whose objects this session changed.
+     *
+     * @return the changed objects, by room number
+     */
+    Map<Integer, ObjectContainer> getChangedRooms() {
+        return this.changedRooms;
+    }
+
+    /**
+     * getPlayTimeMillis
+     * __________________________
+     * How long the game has been played: the time of the saved game
+     * it was loaded from (if any), plus the time since then.
+     *
+     * @return the play time, in milliseconds
+     */
+    public long getPlayTimeMillis() {
+        return this.playTimeBefore + System.currentTimeMillis() - this.playingSince;
+    }
+
+    /**
+     * setPlayTimeMillis
+     * __________________________
+     * Sets how long the game has been played so far, e.g. when loading it.
+     *
+     * @param playTimeMillis the play time, in milliseconds
      */
-    public HashMap<String, String> getSynonyms() {
-        return this.synonyms;
+    void setPlayTimeMillis(long playTimeMillis) {
+        this.playTimeBefore = playTimeMillis;
+        this.playingSince = System.currentTimeMillis();
     }
 
     /**
-     * setHelpText
+     * getVisitedRoomNumbers
      * __________________________
-     * Setter method for helpText
-     * @param help which is text to set
+     * Returns the numbers of the rooms visited in this session.
+     *
+     * @return the visited room numbers, in increasing order
+     */
+    int[] getVisitedRoomNumbers() {
+        int[] numbers = new int[this.visited.cardinality() + this.visitedSparse.size()];
+        int count = 0;
+        for (int number = this.visited.nextSetBit(0); number >= 0; number = this.visited.nextSetBit(number + 1)) numbers[count++] = number;
+        for (int number : this.visitedSparse) numbers[count++] = number;
+        Arrays.sort(numbers);
+        return numbers;
+    }
+
+    /**
+     * Writes the game as its SaveCodec save, which holds only what the
+     * player changed, instead of the game's own fields.
+     *
+     * @return the object written in place of the game
      */
-    public void setHelpText(String help) {
-        this.helpText = help;
+    private Object writeReplace() {
+        return new SerializedGame(snapshot());
     }
 
+    /**
+     * Refuses a stream holding an AdventureGame's own fields; games are
+     * written as a SerializedGame. Saves of the baseline classes are read
+     * by LegacySaveReader.
+     *
+     * @param in the stream to read from
+     * @throws InvalidObjectException always
+     */
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("An AdventureGame is read from its SerializedGame");
+    }
 
+    /**
+     * Class SerializedGame. An AdventureGame as Java serialization writes it: its SaveCodec save.
+     */
+    private static class SerializedGame implements Serializable {
+
+        /**
+         * The version of this form.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The save, as SaveCodec encodes it.
+         */
+        private final byte[] save;
+
+        /**
+         * SerializedGame Constructor.
+         *
+         * @param save the save, as SaveCodec encodes it
+         */
+        SerializedGame(byte[] save) {
+            this.save = save;
+        }
+
+        /**
+         * Decodes the save into a game, loading its world if needed.
+         *
+         * @return the game
+         * @throws InvalidObjectException if the world cannot be loaded, or the save is damaged or does not fit it
+         */
+        private Object readResolve() throws InvalidObjectException {
+            try {
+                return SaveCodec.decode(this.save);
+            } catch (IOException e) {
+                InvalidObjectException invalid = new InvalidObjectException(e.getMessage());
+                invalid.initCause(e);
+                throw invalid;
+            }
+        }
+    }
 }
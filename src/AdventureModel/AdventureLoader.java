@@ -1,125 +1,472 @@
 package AdventureModel;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * Class AdventureLoader. Loads an adventure from files.
+ *
+ * Files are read in two steps: reading turns lines into rooms, passages,
+ * objects and synonyms without touching the game, then they are added to
+ * the game in file order. The game's symbols are only interned while
+ * adding, so the parallel mode (LoadOptions.setParallel) can read the
+ * files, and chunks of a large rooms.txt, on several threads and still
+ * end up with the same symbols as a sequential load.
  */
 public class AdventureLoader {
     /**
-     * The game to return.
+     * The world to fill in.
      */
-    private AdventureGame game;
+    private World world;
 
     /**
      * The name of the adventure.
      */
     private String adventureName;
 
+    /**
+     * How the game is loaded.
+     */
+    private final LoadOptions options;
+
+    /**
+     * Adventure Loader Constructor
+     * __________________________
+     * Initializes attributes
+     * @param world the world that is loaded
+     * @param directoryName the directory in which game files live
+     */
+    public AdventureLoader(World world, String directoryName) {
+        this(world, directoryName, LoadOptions.defaults());
+    }
+
     /**
      * Adventure Loader Constructor
      * __________________________
      * Initializes attributes
-     * @param game the game that is loaded
+     * @param world the world that is loaded
      * @param directoryName the directory in which game files live
+     * @param options how the game is loaded
      */
-    public AdventureLoader(AdventureGame game, String directoryName) {
-        this.game = game;
+    public AdventureLoader(World world, String directoryName, LoadOptions options) {
+        this.world = world;
         this.adventureName = directoryName;
+        this.options = options;
     }
 
+    /**
+     * Rooms files smaller than this are never split into chunks.
+     */
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+
     /**
      * Load game from directory
      * @throws IOException in the case of a file I/O error.
      */
     public void loadGame() throws IOException {
+        if (this.options.getUsePack() && WorldPack.isCurrent(new File(this.adventureName))) {
+            WorldPack.read(this.world, new File(this.adventureName, WorldPack.FILE_NAME));
+            return;
+        }
+        if (this.options.getParallel()) {
+            loadInParallel();
+            return;
+        }
         parseRooms();
         parseObjects();
         parseSynonyms();
-        this.game.setHelpText(parseOtherFile("help"));
+        this.world.setHelpText(parseOtherFile("help"));
     }
 
     /**
-     * Parse Rooms File
+     * Load game from directory, reading the files at the same time
+     * __________________________
+     * objects.txt, synonyms.txt and help.txt are read on the common pool
+     * while rooms.txt is cut into chunks at room boundaries and the chunks
+     * are read there too. Everything is then added to the game in the same
+     * order as loadGame would, since objects can only be placed once their
+     * rooms exist.
+     *
+     * If a chunk cannot be read, rooms.txt is read again sequentially,
+     * which reports the exact line at fault.
      *
      * @throws IOException in the case of a file I/O error.
      */
-    private void parseRooms() throws IOException {
+    private void loadInParallel() throws IOException {
+        CompletableFuture<List<ObjectRecord>> objects = CompletableFuture.supplyAsync(() -> unchecked(this::readObjects));
+        CompletableFuture<List<String[]>> synonyms = CompletableFuture.supplyAsync(() -> unchecked(this::readSynonyms));
+        CompletableFuture<String> help = CompletableFuture.supplyAsync(() -> unchecked(() -> parseOtherFile("help")));
 
-        int roomNumber;
+        List<List<ParsedRoom>> chunks;
+        try {
+            chunks = readRoomChunks();
+        } catch (WorldFormatException e) {
+            chunks = null;
+        }
+        if (chunks == null) {
+            parseRooms(); // throws with the right line number, or reads a file the chunks could not
+        } else {
+            for (List<ParsedRoom> chunk : chunks) {
+                for (ParsedRoom room : chunk) addRoom(room);
+            }
+            this.world.getRooms().trimToSize();
+        }
 
-        String roomFileName = this.adventureName + "/rooms.txt";
-        BufferedReader buff = new BufferedReader(new FileReader(roomFileName));
+        addObjects(join(objects));
+        addSynonyms(join(synonyms));
+        this.world.setHelpText(join(help));
+    }
 
-        while (buff.ready()) {
+    /**
+     * Reads rooms.txt in chunks on the common fork-join pool.
+     *
+     * @return the rooms of each chunk, in file order
+     * @throws IOException in the case of a file I/O error.
+     */
+    private List<List<ParsedRoom>> readRoomChunks() throws IOException {
+        File roomFile = new File(this.adventureName, "rooms.txt");
+        DescriptionStore store = this.options.getLazyDescriptions()
+                ? new DescriptionStore(roomFile, this.options.getDescriptionCacheSize()) : null;
 
-            String currRoom = buff.readLine(); // first line is the number of a room
+        try (FileChannel channel = FileChannel.open(roomFile.toPath(), StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            List<Callable<List<ParsedRoom>>> tasks = new ArrayList<>(bounds.length - 1);
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                long start = bounds[i], end = bounds[i + 1];
+                tasks.add(() -> {
+                    List<ParsedRoom> rooms = new ArrayList<>();
+                    StringBuilder description = new StringBuilder(256);
+                    try (LineReader reader = new LineReader(new RangeInputStream(channel, start, end), roomFile.getName(), start, 0)) {
+                        ParsedRoom room;
+                        while ((room = readRoom(reader, store, description)) != null) rooms.add(room);
+                    }
+                    return rooms;
+                });
+            }
 
-            roomNumber = Integer.parseInt(currRoom); //current room number
+            List<List<ParsedRoom>> chunks = new ArrayList<>(tasks.size());
+            for (Future<List<ParsedRoom>> task : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                try {
+                    chunks.add(task.get());
+                } catch (ExecutionException e) {
+                    // the pool wraps checked exceptions in RuntimeExceptions of its own
+                    for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                        if (cause instanceof IOException) throw (IOException) cause;
+                    }
+                    throw new IllegalStateException(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while loading " + roomFile, e);
+                }
+            }
+            return chunks;
+        }
+    }
 
-            // now need to get room name
-            String roomName = buff.readLine();
+    /**
+     * Cuts rooms.txt into about four chunks per core. Each cut is just
+     * after a blank line that follows a passage and comes before a room
+     * number, so it falls between two rooms.
+     *
+     * @param channel the open rooms file
+     * @return the byte offsets of the chunks, starting with 0 and ending with the file size
+     * @throws IOException in the case of a file I/O error.
+     */
+    private static long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, size / (4L * ForkJoinPool.getCommonPoolParallelism()));
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        byte[] window = new byte[1 << 16];
+        long position = chunkSize;
+        while (position < size) {
+            long cut = findRoomBoundary(channel, position, window);
+            if (cut < 0) break;
+            bounds.add(cut);
+            position = cut + chunkSize;
+        }
+        bounds.add(size);
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) result[i] = bounds.get(i);
+        return result;
+    }
 
-            // now we need to get the description
-            String roomDescription = "";
-            String line = buff.readLine();
-            while (!line.equals("-----")) {
-                roomDescription += line + "\n";
-                line = buff.readLine();
-            }
-            roomDescription += "\n";
-
-            // now we make the room object
-            Room room = new Room(roomName, roomNumber, roomDescription, adventureName);
-
-            // now we make the motion table
-            line = buff.readLine(); // reads the line after "-----"
-            while (line != null && !line.equals("")) {
-                String[] part = line.split(" \s+"); // have to use regex \\s+ as we don't know how many spaces are between the direction and the room number
-                String direction = part[0];
-                String dest = part[1];
-                if (dest.contains("/")) {
-                    String[] blockedPath = dest.split("/");
-                    String dest_part = blockedPath[0];
-                    String object = blockedPath[1];
-                    Passage entry = new Passage(direction, dest_part, object);
-                    room.getMotionTable().addDirection(entry);
-                } else {
-                    Passage entry = new Passage(direction, dest);
-                    room.getMotionTable().addDirection(entry);
+    /**
+     * Finds the first place at or after a byte offset where a room starts.
+     *
+     * @param channel the open rooms file
+     * @param from where to start looking
+     * @param window scratch space for reading
+     * @return the byte offset of the start of a room, or -1 if there is none
+     * @throws IOException in the case of a file I/O error.
+     */
+    private static long findRoomBoundary(FileChannel channel, long from, byte[] window) throws IOException {
+        long position = from;
+        while (true) {
+            // read a window, backed up far enough to see the line before a blank line
+            long windowStart = Math.max(0, position - 256);
+            int read = channel.read(ByteBuffer.wrap(window), windowStart);
+            if (read <= 0) return -1;
+            for (int i = (int) (position - windowStart); i + 1 < read; i++) {
+                if (window[i] != '\n') continue;
+                int blank = i + 1;
+                if (blank < read && window[blank] == '\r') blank++;
+                if (blank >= read || window[blank] != '\n') continue;
+                int next = blank + 1;
+                if (isPassageLineBefore(window, i, windowStart == 0) && isNumberLineAt(window, next, read)) {
+                    return windowStart + next;
                 }
-                line = buff.readLine();
             }
-            this.game.getRooms().put(room.getRoomNumber(), room);
+            if (windowStart + read >= channel.size()) return -1;
+            position = windowStart + read - 1;
         }
+    }
 
+    /**
+     * Checks whether the line ending at a newline looks like a passage,
+     * i.e. has a space followed by more white space.
+     *
+     * @param bytes the bytes read
+     * @param newline the index of the newline that ends the line
+     * @param atFileStart true if the bytes start at the beginning of the file
+     * @return true if the line looks like a passage
+     */
+    private static boolean isPassageLineBefore(byte[] bytes, int newline, boolean atFileStart) {
+        int start = newline;
+        while (start > 0 && bytes[start - 1] != '\n') start--;
+        if (start == 0 && !atFileStart) return false; // the line may be cut off by the window
+        for (int i = start; i + 1 < newline; i++) {
+            if (bytes[i] == ' ' && (bytes[i + 1] == ' ' || bytes[i + 1] == '\t')) return i > start;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the line starting at an index is a room number.
+     *
+     * @param bytes the bytes read
+     * @param start the index of the start of the line
+     * @param limit the number of bytes read
+     * @return true if the line is all digits and ends within the bytes read
+     */
+    private static boolean isNumberLineAt(byte[] bytes, int start, int limit) {
+        int i = start;
+        while (i < limit && bytes[i] >= '0' && bytes[i] <= '9') i++;
+        if (i == start) return false;
+        return i < limit && (bytes[i] == '\n' || bytes[i] == '\r');
+    }
+
+    /**
+     * Parse Rooms File
+     * __________________________
+     * Reads rooms.txt in a single pass. Each room is its number, its name,
+     * description lines up to "-----", then one passage per line
+     * (a direction, two or more spaces, and a destination with an optional
+     * "/KEY"), then a blank line before the next room.
+     *
+     * With lazy descriptions, only the position of the description lines
+     * is kept, and the Room reads them from the mapped file when needed.
+     *
+     * @throws IOException in the case of a file I/O error.
+     */
+    private void parseRooms() throws IOException {
+        StringBuilder description = new StringBuilder(256);
+        File roomFile = new File(this.adventureName, "rooms.txt");
+        DescriptionStore store = this.options.getLazyDescriptions()
+                ? new DescriptionStore(roomFile, this.options.getDescriptionCacheSize()) : null;
+
+        try (LineReader reader = new LineReader(roomFile)) {
+            ParsedRoom room;
+            while ((room = readRoom(reader, store, description)) != null) addRoom(room);
+        }
+        this.world.getRooms().trimToSize();
+    }
+
+    /**
+     * Reads the next room of a rooms file.
+     *
+     * @param reader the rooms file
+     * @param store the mapped rooms file when descriptions are lazy, else null
+     * @param description scratch space for the description
+     * @return the room and its passages, or null at the end of the file
+     * @throws IOException in the case of a file I/O error.
+     */
+    private ParsedRoom readRoom(LineReader reader, DescriptionStore store, StringBuilder description) throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) return null;
+        } while (line.isEmpty()); // the blank line between rooms
+
+        int roomNumber = parseNumber(reader, line, "a room number"); // first line is the number of a room
+
+        String roomName = reader.readLine();
+        if (roomName == null) throw reader.error("Room " + roomNumber + " has no name");
+
+        // the description runs up to the "-----" line
+        long descriptionStart = reader.getLineEnd();
+        description.setLength(0);
+        while ((line = reader.readLine()) != null && !line.equals("-----")) {
+            if (store == null) description.append(line).append('\n');
+        }
+        if (line == null) throw reader.error("Room " + roomNumber + " has no \"-----\" after its description");
+        description.append('\n');
+
+        Room room = store == null
+                ? new Room(roomName, roomNumber, description.toString(), adventureName)
+                : new Room(roomName, roomNumber, store, descriptionStart, (int) (reader.getLineStart() - descriptionStart), adventureName);
+
+        // now we read the motion table, up to the blank line or end of file
+        ParsedRoom parsed = new ParsedRoom(room);
+        while ((line = reader.readLine()) != null && !line.isEmpty()) {
+            parsed.passages.add(parsePassage(reader, line));
+        }
+        return parsed;
+    }
+
+    /**
+     * Adds a room to the game, with its passages in file order.
+     *
+     * @param parsed the room and its passages
+     */
+    private void addRoom(ParsedRoom parsed) {
+        SymbolTable symbols = this.world.getSymbols();
+        for (Passage entry : parsed.passages) {
+            int directionSymbol = symbols.intern(entry.getDirection());
+            entry.setDirection(symbols.name(directionSymbol), directionSymbol); // shared by every room
+            parsed.room.getMotionTable().addDirection(entry);
+        }
+        this.world.getRooms().put(parsed.room.getRoomNumber(), parsed.room);
+    }
+
+    /**
+     * Parses one line of a passage table without going through a regex.
+     * The direction ends at the first space that is followed by more
+     * white space, as with the old split(" \\s+").
+     *
+     * @param reader the reader the line came from, for errors
+     * @param line the line
+     * @return the Passage; its direction is not interned yet
+     * @throws WorldFormatException if the line is not a passage
+     */
+    private static Passage parsePassage(LineReader reader, String line) throws WorldFormatException {
+        int length = line.length();
+        int split = 0;
+        while (split + 1 < length && !(line.charAt(split) == ' ' && Character.isWhitespace(line.charAt(split + 1)))) split++;
+        if (split + 1 >= length) throw reader.error("Expected a direction, two or more spaces and a room number: " + line);
+
+        String direction = line.substring(0, split);
+
+        int start = split;
+        while (start < length && Character.isWhitespace(line.charAt(start))) start++;
+        int end = start;
+        while (end < length && !Character.isWhitespace(line.charAt(end))) end++;
+        if (start == end) throw reader.error("Passage " + direction + " has no destination");
+
+        int slash = line.indexOf('/', start);
+        if (slash >= 0 && slash < end) {
+            int keyEnd = line.indexOf('/', slash + 1);
+            if (keyEnd < 0 || keyEnd > end) keyEnd = end;
+            String dest = line.substring(start, slash);
+            parseNumber(reader, dest, "a destination room");
+            return new Passage(direction, dest, line.substring(slash + 1, keyEnd));
+        }
+        String dest = line.substring(start, end);
+        parseNumber(reader, dest, "a destination room");
+        return new Passage(direction, dest);
+    }
+
+    /**
+     * Parses a number, reporting the line if it is not one.
+     *
+     * @param reader the reader the text came from, for errors
+     * @param text the text to parse
+     * @param what what the number should be, for errors
+     * @return the number
+     * @throws WorldFormatException if the text is not a number
+     */
+    private static int parseNumber(LineReader reader, String text, String what) throws WorldFormatException {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            throw reader.error("Expected " + what + ", found \"" + text + "\"");
+        }
     }
 
     /**
      * Parse Objects File
+     * __________________________
+     * Each object is its name, description and room number,
+     * with a blank line between objects.
      *
      * @throws IOException in the case of a file I/O error.
      */
     public void parseObjects() throws IOException {
+        addObjects(readObjects());
+    }
+
+    /**
+     * Reads objects.txt without touching the game.
+     *
+     * @return the objects, in file order
+     * @throws IOException in the case of a file I/O error.
+     */
+    private List<ObjectRecord> readObjects() throws IOException {
+        List<ObjectRecord> objects = new ArrayList<>();
+        try (LineReader reader = new LineReader(new File(this.adventureName, "objects.txt"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue; // the blank line between objects
+                String objectDescription = reader.readLine();
+                String objectLocation = reader.readLine();
+                if (objectLocation == null) throw reader.error("Object " + line + " has no location");
+                int location = parseNumber(reader, objectLocation, "the room of " + line);
+                objects.add(new ObjectRecord(line, objectDescription, location, reader.getLineNumber()));
+
+                String separator = reader.readLine();
+                if (separator != null && !separator.isEmpty()) throw reader.error("Expected a blank line after object " + line);
+            }
+        }
+        return objects;
+    }
 
-        String objectFileName = this.adventureName + "/objects.txt";
-        BufferedReader buff = new BufferedReader(new FileReader(objectFileName));
-
-        while (buff.ready()) {
-            String objectName = buff.readLine();
-            String objectDescription = buff.readLine();
-            String objectLocation = buff.readLine();
-            String separator = buff.readLine();
-            if (separator != null && !separator.isEmpty())
-                System.out.println("Formatting Error!");
-            int i = Integer.parseInt(objectLocation);
-            Room location = this.game.getRooms().get(i);
-            AdventureObject object = new AdventureObject(objectName, objectDescription, location);
+    /**
+     * Places objects in their rooms, then resolves the keys of blocked passages.
+     *
+     * @param objects the objects, in file order
+     * @throws WorldFormatException if an object is in a room that does not exist
+     */
+    private void addObjects(List<ObjectRecord> objects) throws WorldFormatException {
+        SymbolTable symbols = this.world.getSymbols();
+        for (ObjectRecord record : objects) {
+            String objectName = symbols.name(symbols.intern(record.name));
+            Room location = this.world.getRooms().get(record.location);
+            if (location == null) {
+                throw new WorldFormatException("objects.txt", record.line, "Object " + objectName + " is in room " + record.location + ", which does not exist");
+            }
+            AdventureObject object = new AdventureObject(objectName, record.description, location, this.world.assignObjectId(objectName));
             location.addGameObject(object);
         }
 
+        // now that all objects have IDs, resolve the keys of blocked passages
+        for (Room room : this.world.getRooms().values()) {
+            for (Passage entry : room.getMotionTable().getDirection()) {
+                if (entry.getIsBlocked()) entry.setKeyId(this.world.getObjectId(entry.getKeyName()));
+            }
+        }
     }
 
     /**
@@ -128,17 +475,41 @@ public class AdventureLoader {
      * @throws IOException in the case of a file I/O error.
      */
     public void parseSynonyms() throws IOException {
-        String synonymsFileName = this.adventureName + "/synonyms.txt";
-        BufferedReader buff = new BufferedReader(new FileReader(synonymsFileName));
-        String line = buff.readLine();
-        while(line != null){
-            String[] commandAndSynonym = line.split("=");
-            String command1 = commandAndSynonym[0];
-            String command2 = commandAndSynonym[1];
-            this.game.getSynonyms().put(command1,command2);
-            line = buff.readLine();
+        addSynonyms(readSynonyms());
+    }
+
+    /**
+     * Reads synonyms.txt without touching the game.
+     *
+     * @return pairs of synonym and command, in file order
+     * @throws IOException in the case of a file I/O error.
+     */
+    private List<String[]> readSynonyms() throws IOException {
+        List<String[]> synonyms = new ArrayList<>();
+        try (LineReader reader = new LineReader(new File(this.adventureName, "synonyms.txt"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                int equals = line.indexOf('=');
+                if (equals < 0) throw reader.error("Expected SYNONYM=COMMAND: " + line);
+                int end = line.indexOf('=', equals + 1);
+                synonyms.add(new String[] {line.substring(0, equals), line.substring(equals + 1, end < 0 ? line.length() : end)});
+            }
         }
+        return synonyms;
+    }
 
+    /**
+     * Adds synonyms to the game.
+     *
+     * @param synonyms pairs of synonym and command
+     */
+    private void addSynonyms(List<String[]> synonyms) {
+        SymbolTable symbols = this.world.getSymbols();
+        for (String[] commandAndSynonym : synonyms) {
+            String command2 = symbols.name(symbols.intern(commandAndSynonym[1]));
+            this.world.getSynonymTable().put(commandAndSynonym[0], command2);
+        }
     }
 
     /**
@@ -149,15 +520,169 @@ public class AdventureLoader {
      * @return String representation of information from the parsed file.
      */
     public String parseOtherFile(String fileName) throws IOException {
-        String text = "";
-        fileName = this.adventureName + "/" + fileName + ".txt";
-        BufferedReader buff = new BufferedReader(new FileReader(fileName));
-        String line = buff.readLine();
-        while (line != null) { // while not EOF
-            text += line+"\n";
-            line = buff.readLine();
-        }
-        return text;
+        StringBuilder text = new StringBuilder();
+        try (LineReader reader = new LineReader(new File(this.adventureName, fileName + ".txt"))) {
+            String line;
+            while ((line = reader.readLine()) != null) { // while not EOF
+                text.append(line).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Runs a read for CompletableFuture, which cannot throw IOException.
+     *
+     * @param read the read to run
+     * @param <T> what the read returns
+     * @return what the read returns
+     */
+    private static <T> T unchecked(Callable<T> read) {
+        try {
+            return read.call();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Waits for a read started with unchecked, and throws its IOException if it failed.
+     *
+     * @param read the read
+     * @param <T> what the read returns
+     * @return what the read returns
+     * @throws IOException in the case of a file I/O error.
+     */
+    private static <T> T join(CompletableFuture<T> read) throws IOException {
+        try {
+            return read.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) throw ((UncheckedIOException) e.getCause()).getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * A room that has been read, and its passages, which are only
+     * added to its PassageTable once their directions are interned.
+     */
+    private static class ParsedRoom {
+
+        /**
+         * The room, with an empty PassageTable.
+         */
+        final Room room;
+
+        /**
+         * The passages of the room, in file order.
+         */
+        final List<Passage> passages = new ArrayList<>(4);
+
+        /**
+         * ParsedRoom Constructor.
+         *
+         * @param room the room
+         */
+        ParsedRoom(Room room) {
+            this.room = room;
+        }
+    }
+
+    /**
+     * An object that has been read but not yet placed.
+     */
+    private static class ObjectRecord {
+
+        /**
+         * The name of the object.
+         */
+        final String name;
+
+        /**
+         * The description of the object.
+         */
+        final String description;
+
+        /**
+         * The number of the room the object starts in.
+         */
+        final int location;
+
+        /**
+         * The line of the room number, for errors.
+         */
+        final int line;
+
+        /**
+         * ObjectRecord Constructor.
+         *
+         * @param name the name of the object
+         * @param description the description of the object
+         * @param location the number of the room it starts in
+         * @param line the line of the room number
+         */
+        ObjectRecord(String name, String description, int location, int line) {
+            this.name = name;
+            this.description = description;
+            this.location = location;
+            this.line = line;
+        }
+    }
+
+    /**
+     * Reads a range of bytes of a file with positional reads, so that
+     * several chunks can be read from one channel at the same time.
+     */
+    private static class RangeInputStream extends InputStream {
+
+        /**
+         * The file.
+         */
+        private final FileChannel channel;
+
+        /**
+         * The next byte to read.
+         */
+        private long position;
+
+        /**
+         * The byte after the last one to read.
+         */
+        private final long end;
+
+        /**
+         * RangeInputStream Constructor.
+         *
+         * @param channel the file
+         * @param start the first byte to read
+         * @param end the byte after the last one to read
+         */
+        RangeInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (position >= end) return -1;
+            int n = channel.read(ByteBuffer.wrap(bytes, offset, (int) Math.min(length, end - position)), position);
+            if (n > 0) position += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+            // the channel belongs to the loader
+        }
     }
 
 }
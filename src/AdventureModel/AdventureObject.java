@@ -24,6 +24,12 @@ public class AdventureObject implements Serializable {
      */
     private Room location = null;
 
+    /**
+     * The dense integer ID of the object, assigned when the game is loaded.
+     * Objects with the same name share an ID; -1 if no ID was assigned.
+     */
+    private int id = -1;
+
     /**
      * Adventure Object Constructor
      * ___________________________
@@ -39,6 +45,21 @@ public class AdventureObject implements Serializable {
         this.location = location;
     }
 
+    /**
+     * Adventure Object Constructor
+     * ___________________________
+     * This constructor sets the name, description, location and ID of the object.
+     *
+     * @param name The name of the Object in the game.
+     * @param description One line description of the Object.
+     * @param location The location of the Object in the game.
+     * @param id The dense integer ID of the Object.
+     */
+    public AdventureObject(String name, String description, Room location, int id){
+        this(name, description, location);
+        this.id = id;
+    }
+
     /**
      * Getter method for the name attribute.
      *
@@ -48,6 +69,15 @@ public class AdventureObject implements Serializable {
         return this.objectName;
     }
 
+    /**
+     * Getter method for the id attribute.
+     *
+     * @return ID of the object, or -1 if none was assigned
+     */
+    public int getId(){
+        return this.id;
+    }
+
     /**
      * Getter method for the description attribute.
      *
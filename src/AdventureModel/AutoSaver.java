@@ -0,0 +1,186 @@
+package AdventureModel;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class AutoSaver. Saves games in the background, so that saving never
+ * holds up whoever is playing.
+ *
+ * save() takes a snapshot of the game right away (a few hundred bytes,
+ * since a game only saves what its player changed) and hands it to a
+ * writer thread. The writer waits a little before writing, and if more
+ * saves come in meanwhile, as when the player walks through several
+ * rooms in a row, only the last of them is written.
+ *
+ * Every save file is written to a temporary file in the same directory
+ * and then renamed over the real one, so a save file is either the old
+ * one or the new one in full, never part of one. It is then recorded in
+ * the SaveCatalog of its directory, if the AutoSaver was given one.
+ */
+public class AutoSaver implements Closeable {
+
+    /**
+     * How long the writer waits for more saves before writing, by default.
+     */
+    public static final long DEFAULT_DELAY_MILLIS = 500;
+
+    /**
+     * The writer thread.
+     */
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "autosave-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * How long the writer waits for more saves before writing.
+     */
+    private final long delayMillis;
+
+    /**
+     * Where saves are recorded once written, or null.
+     */
+    private final SaveCatalog catalog;
+
+    /**
+     * Where the next write goes, or null if there is nothing to write.
+     */
+    private File pendingFile;
+
+    /**
+     * What the next write writes.
+     */
+    private byte[] pendingState;
+
+    /**
+     * Whether a write is scheduled.
+     */
+    private boolean scheduled;
+
+    /**
+     * AutoSaver Constructor.
+     *
+     * @param delayMillis how long to wait for more saves before writing
+     */
+    public AutoSaver(long delayMillis) {
+        this(delayMillis, null);
+    }
+
+    /**
+     * AutoSaver Constructor, for saves that are recorded in a catalog.
+     *
+     * @param delayMillis how long to wait for more saves before writing
+     * @param catalog where saves are recorded once written, or null
+     */
+    public AutoSaver(long delayMillis, SaveCatalog catalog) {
+        this.delayMillis = delayMillis;
+        this.catalog = catalog;
+    }
+
+    /**
+     * Saves a game in the background. If another save comes in before
+     * this one is written, only the other one is written.
+     *
+     * @param game the game to save; its state is taken now
+     * @param file where to save it
+     */
+    public void save(AdventureGame game, File file) {
+        save(file, game.snapshot());
+    }
+
+    /**
+     * Saves a snapshot of a game in the background, as save() does.
+     *
+     * @param file where to save it
+     * @param state the snapshot, from AdventureGame.snapshot()
+     */
+    public void save(File file, byte[] state) {
+        synchronized (this) {
+            this.pendingFile = file;
+            this.pendingState = state;
+            if (this.scheduled) return;
+            this.scheduled = true;
+        }
+        this.writer.schedule(this::writePending, this.delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes the latest save, if there is one. Runs on the writer thread.
+     */
+    private void writePending() {
+        File file;
+        byte[] state;
+        synchronized (this) {
+            file = this.pendingFile;
+            state = this.pendingState;
+            this.pendingFile = null;
+            this.pendingState = null;
+            this.scheduled = false;
+        }
+        if (file == null) return;
+        try {
+            writeAtomically(file, state);
+            if (this.catalog != null) this.catalog.record(file, state);
+        } catch (IOException e) {
+            System.err.println("Could not autosave to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes any save that is waiting, and waits for it to be written.
+     */
+    public void flush() {
+        try {
+            this.writer.submit(this::writePending).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The autosave writer failed", e.getCause());
+        }
+    }
+
+    /**
+     * Writes any save that is waiting, then stops the writer.
+     */
+    @Override
+    public void close() {
+        if (this.writer.isShutdown()) return;
+        flush();
+        this.writer.shutdown();
+    }
+
+    /**
+     * Writes a file so that it is never seen half written: the bytes go
+     * to a temporary file in the same directory, which is synced and
+     * then renamed over the target.
+     *
+     * @param target the file to write
+     * @param bytes what to write
+     * @throws IOException in the case of a file I/O error.
+     */
+    public static void writeAtomically(File target, byte[] bytes) throws IOException {
+        File directory = target.getAbsoluteFile().getParentFile();
+        Files.createDirectories(directory.toPath());
+        Path temp = Files.createTempFile(directory.toPath(), "." + target.getName() + ".", ".tmp");
+        try {
+            try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+                out.write(bytes);
+                out.getChannel().force(true);
+            }
+            Files.move(temp, target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
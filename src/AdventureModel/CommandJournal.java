@@ -0,0 +1,265 @@
+package AdventureModel;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Class CommandJournal. Saves a game as it is played by writing down
+ * every command that changes it, instead of the whole game every time.
+ *
+ * A journal is two files next to each other: a snapshot (.snap) of the
+ * game as of some command, and a log (.journal) of the commands after
+ * that, one per line, as "number TAB command". Each command costs one
+ * short append to the log. Every so many commands, or every so many
+ * seconds, a new snapshot is written and the log starts over.
+ *
+ * The game is deterministic, so restore() gets it back by loading the
+ * snapshot and running the logged commands again. Log lines that were
+ * only half written when the game stopped, or that are already in the
+ * snapshot, are skipped.
+ */
+public class CommandJournal implements Closeable {
+
+    /**
+     * The extension of snapshot files.
+     */
+    public static final String SNAPSHOT_EXTENSION = ".snap";
+
+    /**
+     * The extension of log files.
+     */
+    public static final String JOURNAL_EXTENSION = ".journal";
+
+    /**
+     * Commands between snapshots, by default.
+     */
+    public static final int DEFAULT_SNAPSHOT_EVERY = 100;
+
+    /**
+     * Milliseconds between snapshots, by default.
+     */
+    public static final long DEFAULT_SNAPSHOT_MILLIS = 60_000;
+
+    /**
+     * The first four bytes of every snapshot, "AGJS".
+     */
+    static final int MAGIC = 0x41474A53;
+
+    /**
+     * The version of the snapshot format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The size of a snapshot's header: magic, version and command number.
+     */
+    static final int SNAPSHOT_HEADER_SIZE = 16;
+
+    /**
+     * The game being journaled.
+     */
+    private final AdventureGame game;
+
+    /**
+     * The snapshot file.
+     */
+    private final File snapshotFile;
+
+    /**
+     * The log file.
+     */
+    private final File journalFile;
+
+    /**
+     * Commands between snapshots.
+     */
+    private final int snapshotEvery;
+
+    /**
+     * Milliseconds between snapshots.
+     */
+    private final long snapshotMillis;
+
+    /**
+     * Where snapshots are recorded once written, or null.
+     */
+    private SaveCatalog catalog;
+
+    /**
+     * Where commands are appended.
+     */
+    private Writer log;
+
+    /**
+     * The number of the last command written.
+     */
+    private long sequence;
+
+    /**
+     * The number of the last command in the snapshot.
+     */
+    private long snapshotSequence;
+
+    /**
+     * When the last snapshot was written.
+     */
+    private long snapshotTime;
+
+    /**
+     * CommandJournal Constructor. Starts journaling a game by writing
+     * a snapshot of it as it is now, and an empty log.
+     *
+     * @param game the game to journal
+     * @param snapshotFile the snapshot file; the log goes next to it
+     * @param snapshotEvery commands between snapshots
+     * @param snapshotMillis milliseconds between snapshots
+     * @throws IOException in the case of a file I/O error.
+     */
+    public CommandJournal(AdventureGame game, File snapshotFile, int snapshotEvery, long snapshotMillis) throws IOException {
+        if (snapshotEvery < 1) throw new IllegalArgumentException("Snapshots need at least one command between them");
+        this.game = game;
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFileOf(snapshotFile);
+        this.snapshotEvery = snapshotEvery;
+        this.snapshotMillis = snapshotMillis;
+        snapshot();
+    }
+
+    /**
+     * Writes a command down, after the game has run it.
+     * Writes a snapshot instead if one is due.
+     *
+     * @param command the command, as the player typed it
+     * @throws IOException in the case of a file I/O error.
+     */
+    public void append(String command) throws IOException {
+        this.sequence++;
+        if (this.sequence - this.snapshotSequence >= this.snapshotEvery
+                || System.currentTimeMillis() - this.snapshotTime >= this.snapshotMillis) {
+            snapshot();
+            return;
+        }
+        this.log.write(this.sequence + "\t" + command.replace('\n', ' ') + "\n");
+        this.log.flush();
+    }
+
+    /**
+     * Writes a snapshot of the game as it is now, and starts the log over.
+     * Call this after changing the game other than by a command.
+     *
+     * @throws IOException in the case of a file I/O error.
+     */
+    public void snapshot() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(this.sequence);
+            out.write(this.game.snapshot());
+        }
+        byte[] snapshot = bytes.toByteArray();
+        AutoSaver.writeAtomically(this.snapshotFile, snapshot);
+        if (this.catalog != null) this.catalog.record(this.snapshotFile, snapshot);
+
+        // the log only has commands up to here now; a crash before it is emptied is harmless, as restore skips them
+        if (this.log != null) this.log.close();
+        this.log = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(this.journalFile, false), StandardCharsets.UTF_8), 256);
+        this.snapshotSequence = this.sequence;
+        this.snapshotTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Setter method for the catalog attribute. The snapshot
+     * is recorded in the catalog now, and whenever it is written.
+     *
+     * @param catalog where snapshots are recorded, or null
+     */
+    public void setCatalog(SaveCatalog catalog) {
+        this.catalog = catalog;
+        if (catalog != null) catalog.record(this.snapshotFile);
+    }
+
+    /**
+     * Returns the number of commands written down since the journal started.
+     *
+     * @return the number of the last command
+     */
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * Getter method for the snapshotFile attribute.
+     *
+     * @return the snapshot file
+     */
+    public File getSnapshotFile() {
+        return this.snapshotFile;
+    }
+
+    /**
+     * Closes the log. The journal can be restored from as it is.
+     *
+     * @throws IOException in the case of a file I/O error.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.log != null) this.log.close();
+        this.log = null;
+    }
+
+    /**
+     * Gets a journaled game back: loads its snapshot, then runs the
+     * commands logged after it.
+     *
+     * @param snapshotFile the snapshot file; the log is found next to it
+     * @return the game, as of the last command logged
+     * @throws IOException in the case of a file I/O error, or if the snapshot is damaged
+     */
+    public static AdventureGame restore(File snapshotFile) throws IOException {
+        byte[] bytes = Files.readAllBytes(snapshotFile.toPath());
+        long sequence;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readInt() != MAGIC) throw new InvalidObjectException(snapshotFile + " is not a journal snapshot");
+            int version = in.readInt();
+            if (version != VERSION) throw new InvalidObjectException(snapshotFile + " is snapshot version " + version + ", expected " + VERSION);
+            sequence = in.readLong();
+        }
+        AdventureGame game = SaveCodec.decodeAny(Arrays.copyOfRange(bytes, SNAPSHOT_HEADER_SIZE, bytes.length));
+
+        File journalFile = journalFileOf(snapshotFile);
+        if (!journalFile.isFile()) return game;
+        GameEngine engine = new GameEngine(game);
+        String log = new String(Files.readAllBytes(journalFile.toPath()), StandardCharsets.UTF_8);
+        int start = 0;
+        for (int end; (end = log.indexOf('\n', start)) >= 0; start = end + 1) { // a last line with no newline was only half written
+            int tab = log.indexOf('\t', start);
+            if (tab < 0 || tab > end) break;
+            long number;
+            try {
+                number = Long.parseLong(log.substring(start, tab));
+            } catch (NumberFormatException e) {
+                break;
+            }
+            if (number <= sequence) continue; // already in the snapshot
+            if (number != sequence + 1) break; // a gap: nothing after it can be trusted
+            engine.submit(log.substring(tab + 1, end));
+            sequence = number;
+        }
+        return game;
+    }
+
+    /**
+     * Returns the log file that goes with a snapshot file.
+     *
+     * @param snapshotFile the snapshot file
+     * @return the log file
+     */
+    private static File journalFileOf(File snapshotFile) {
+        String name = snapshotFile.getName();
+        if (name.endsWith(SNAPSHOT_EXTENSION)) name = name.substring(0, name.length() - SNAPSHOT_EXTENSION.length());
+        return new File(snapshotFile.getAbsoluteFile().getParentFile(), name + JOURNAL_EXTENSION);
+    }
+}
@@ -0,0 +1,107 @@
+package AdventureModel;
+
+/**
+ * The CommandResult class describes the outcome of a single
+ * command submitted to a GameEngine. It carries the kind of
+ * outcome plus any text that should be shown to the player,
+ * so that callers never have to parse the returned text.
+ */
+public class CommandResult {
+
+    /**
+     * The kinds of outcome a command can have.
+     */
+    public enum Type {
+        /** The player asked to look at the current room. */
+        LOOK,
+        /** The player asked for the help text. */
+        HELP,
+        /** The player asked for the moves possible from the current room. */
+        COMMANDS,
+        /** The player asked to see their inventory. */
+        INVENTORY,
+        /** The player asked to see the objects in the current room. */
+        OBJECTS,
+        /** The player moved (or tried to move) along a passage. */
+        MOVED,
+        /** The player landed in a room with a FORCED passage. */
+        FORCED,
+        /** The game is over, either by death, victory or QUIT. */
+        GAME_OVER,
+        /** Any other reply, e.g. the outcome of TAKE or DROP, or an invalid command. */
+        MESSAGE
+    }
+
+    /**
+     * The result of a command the game does not understand.
+     */
+    public static final CommandResult INVALID = new CommandResult(Type.MESSAGE, "INVALID COMMAND.");
+
+    /**
+     * The result of a move that did not end the game.
+     */
+    public static final CommandResult MOVED = new CommandResult(Type.MOVED, null);
+
+    /**
+     * The result of a move into a room with a FORCED passage.
+     */
+    public static final CommandResult FORCED = new CommandResult(Type.FORCED, null);
+
+    /**
+     * The result of a command that ended the game.
+     */
+    public static final CommandResult GAME_OVER = new CommandResult(Type.GAME_OVER, null);
+
+    /**
+     * The kind of outcome.
+     */
+    private final Type type;
+
+    /**
+     * The text to show the player, or null if the current room should be shown.
+     */
+    private final String text;
+
+    /**
+     * CommandResult Constructor.
+     *
+     * @param type the kind of outcome
+     * @param text the text to show the player, or null if the current room should be shown
+     */
+    public CommandResult(Type type, String text) {
+        this.type = type;
+        this.text = text;
+    }
+
+    /**
+     * Getter method for the type attribute.
+     *
+     * @return the kind of outcome
+     */
+    public Type getType() {
+        return this.type;
+    }
+
+    /**
+     * Getter method for the text attribute.
+     *
+     * @return the text to show the player, or null if the current room should be shown
+     */
+    public String getText() {
+        return this.text;
+    }
+
+    /**
+     * Returns true if the game ended as a result of the command.
+     *
+     * @return true if the game is over, false otherwise
+     */
+    public boolean isGameOver() {
+        return this.type == Type.GAME_OVER;
+    }
+
+    @Override
+    public String toString() {
+        return this.type + (this.text == null ? "" : ": " + this.text);
+    }
+}
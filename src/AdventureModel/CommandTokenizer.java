@@ -0,0 +1,391 @@
+package AdventureModel;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Class CommandTokenizer. Splits a command into upper case words
+ * and replaces synonyms with the words they stand for.
+ *
+ * The input is scanned once. Case is folded while scanning, and runs of
+ * white space count as a single separator. Every word the game knows
+ * (the symbols of its SymbolTable, plus synonyms) is kept in a
+ * precomputed open-addressing table that is probed with the characters
+ * of the input directly, so resolving a known word allocates nothing.
+ * Each word comes with its symbol, or -1 if it has none. Only words
+ * the game does not know are copied into new Strings.
+ *
+ * The words are returned in a Tokens view that is reused by every call,
+ * so a tokenizer must not be shared between threads. Each session gets
+ * its own copy of the World's tokenizer instead; copies share the tables
+ * of known words until one of them adds a word. Words a copy adds
+ * (addLocalWord) get symbols of that copy only, so the World's
+ * SymbolTable, which every session shares, never changes after loading.
+ */
+public class CommandTokenizer {
+
+    /**
+     * The known words, upper case, or null for an empty slot.
+     */
+    private String[] words;
+
+    /**
+     * What each known word resolves to (itself, or the word it is a synonym for).
+     */
+    private String[] resolved;
+
+    /**
+     * The symbol of what each known word resolves to.
+     */
+    private int[] resolvedSymbols;
+
+    /**
+     * The symbols of the game.
+     */
+    private final SymbolTable symbols;
+
+    /**
+     * The number of known words.
+     */
+    private int size;
+
+    /**
+     * The symbol the next word added by addLocalWord gets. Local symbols
+     * are below -1 (which means no symbol), so they never equal a symbol
+     * of the SymbolTable, such as a direction.
+     */
+    private int nextLocalSymbol = -2;
+
+    /**
+     * True while the tables may be shared with other copies,
+     * which means they must be copied before they change.
+     */
+    private boolean shared;
+
+    /**
+     * Scratch space for folding the case of a word.
+     */
+    private char[] buffer = new char[32];
+
+    /**
+     * The view returned by tokenize.
+     */
+    private final Tokens tokens = new Tokens();
+
+    /**
+     * CommandTokenizer constructor.
+     *
+     * @param symbols the symbols of the game; every symbol becomes a known word
+     * @param synonyms map from each synonym to the word it stands for
+     */
+    public CommandTokenizer(SymbolTable symbols, Map<String, String> synonyms) {
+        this.symbols = symbols;
+        this.words = new String[64];
+        this.resolved = new String[64];
+        this.resolvedSymbols = new int[64];
+        for (int symbol = 0; symbol < symbols.size(); symbol++) addWord(symbols.name(symbol));
+        for (Map.Entry<String, String> synonym : synonyms.entrySet()) {
+            addWord(synonym.getValue());
+            addSynonym(synonym.getKey(), synonym.getValue());
+        }
+    }
+
+    /**
+     * CommandTokenizer constructor, for a copy.
+     *
+     * @param prototype the tokenizer to copy
+     */
+    private CommandTokenizer(CommandTokenizer prototype) {
+        this.symbols = prototype.symbols;
+        this.words = prototype.words;
+        this.resolved = prototype.resolved;
+        this.resolvedSymbols = prototype.resolvedSymbols;
+        this.size = prototype.size;
+        this.nextLocalSymbol = prototype.nextLocalSymbol;
+        this.shared = true;
+        prototype.shared = true;
+    }
+
+    /**
+     * Returns a tokenizer that knows the same words. The two share their
+     * tables until either adds a word, so copying is cheap however many
+     * words the game has.
+     *
+     * @return the copy
+     */
+    public CommandTokenizer copy() {
+        return new CommandTokenizer(this);
+    }
+
+    /**
+     * Adds a word that resolves to itself, unless it is already known,
+     * with a symbol of this tokenizer only. Used for the verbs a session
+     * registers; the symbol table of the game is left alone.
+     *
+     * @param word the word, in upper case
+     */
+    public void addLocalWord(String word) {
+        if (find(word) < 0) put(word, word, nextLocalSymbol--);
+    }
+
+    /**
+     * Adds a word that resolves to itself, unless it is already known.
+     * The word is added to the symbol table if it is not there yet.
+     *
+     * @param word the word, in upper case
+     */
+    private void addWord(String word) {
+        if (find(word) < 0) {
+            int symbol = symbols.intern(word);
+            put(symbols.name(symbol), symbols.name(symbol), symbol);
+        }
+    }
+
+    /**
+     * Adds a synonym, replacing any previous meaning of the word.
+     *
+     * @param synonym the synonym, in upper case
+     * @param word the word it stands for
+     */
+    private void addSynonym(String synonym, String word) {
+        int symbol = symbols.intern(word);
+        put(synonym, symbols.name(symbol), symbol);
+    }
+
+    /**
+     * Splits a command into words and resolves synonyms.
+     *
+     * @param input the command as typed by the player
+     * @return the words of the command; the view is reused by the next call
+     */
+    public Tokens tokenize(CharSequence input) {
+        tokens.count = 0;
+        int length = input.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && Character.isWhitespace(input.charAt(i))) i++;
+            if (i == length) break;
+            int start = i;
+            while (i < length && !Character.isWhitespace(input.charAt(i))) i++;
+            resolve(input, start, i);
+        }
+        return tokens;
+    }
+
+    /**
+     * Resolves one word of the input and appends it to the tokens.
+     *
+     * @param input the command
+     * @param start the index of the first character of the word
+     * @param end the index after the last character of the word
+     */
+    private void resolve(CharSequence input, int start, int end) {
+        int length = end - start;
+        if (buffer.length < length) buffer = new char[Math.max(length, buffer.length * 2)];
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(start + i);
+            if (c >= 'a' && c <= 'z') c -= 'a' - 'A';
+            else if (c >= 0x80) { // let String handle the other alphabets
+                resolveSlow(input, start, end);
+                return;
+            }
+            buffer[i] = c;
+            hash = 31 * hash + c;
+        }
+
+        int mask = words.length - 1;
+        for (int slot = spread(hash) & mask; words[slot] != null; slot = (slot + 1) & mask) {
+            if (matches(words[slot], length)) {
+                tokens.add(resolved[slot], resolvedSymbols[slot]);
+                return;
+            }
+        }
+        tokens.add(new String(buffer, 0, length), -1);
+    }
+
+    /**
+     * Resolves a word that contains characters outside ASCII
+     * and appends it to the tokens.
+     *
+     * @param input the command
+     * @param start the index of the first character of the word
+     * @param end the index after the last character of the word
+     */
+    private void resolveSlow(CharSequence input, int start, int end) {
+        String word = input.subSequence(start, end).toString().toUpperCase();
+        int slot = find(word);
+        if (slot < 0) tokens.add(word, -1);
+        else tokens.add(resolved[slot], resolvedSymbols[slot]);
+    }
+
+    /**
+     * Compares a known word with the folded word in the buffer.
+     *
+     * @param word the known word
+     * @param length the length of the word in the buffer
+     * @return true if they are equal
+     */
+    private boolean matches(String word, int length) {
+        if (word.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (word.charAt(i) != buffer[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the slot of a known word.
+     *
+     * @param word the word
+     * @return the slot, or -1 if the word is not known
+     */
+    private int find(String word) {
+        int mask = words.length - 1;
+        for (int slot = spread(word.hashCode()) & mask; words[slot] != null; slot = (slot + 1) & mask) {
+            if (words[slot].equals(word)) return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * Adds or replaces a known word.
+     *
+     * @param word the word
+     * @param meaning what the word resolves to
+     * @param symbol the symbol of the meaning
+     */
+    private void put(String word, String meaning, int symbol) {
+        if (shared) {
+            words = words.clone();
+            resolved = resolved.clone();
+            resolvedSymbols = resolvedSymbols.clone();
+            shared = false;
+        }
+        int slot = find(word);
+        if (slot >= 0) {
+            resolved[slot] = meaning;
+            resolvedSymbols[slot] = symbol;
+            return;
+        }
+        if (2 * (size + 1) > words.length) rehash(words.length * 2);
+        int mask = words.length - 1;
+        slot = spread(word.hashCode()) & mask;
+        while (words[slot] != null) slot = (slot + 1) & mask;
+        words[slot] = word;
+        resolved[slot] = meaning;
+        resolvedSymbols[slot] = symbol;
+        size++;
+    }
+
+    /**
+     * Moves every known word into tables of a new capacity.
+     *
+     * @param capacity the new capacity, a power of two
+     */
+    private void rehash(int capacity) {
+        String[] oldWords = words;
+        String[] oldResolved = resolved;
+        int[] oldSymbols = resolvedSymbols;
+        words = new String[capacity];
+        resolved = new String[capacity];
+        resolvedSymbols = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldWords.length; i++) {
+            if (oldWords[i] == null) continue;
+            int slot = spread(oldWords[i].hashCode()) & mask;
+            while (words[slot] != null) slot = (slot + 1) & mask;
+            words[slot] = oldWords[i];
+            resolved[slot] = oldResolved[i];
+            resolvedSymbols[slot] = oldSymbols[i];
+        }
+    }
+
+    /**
+     * Mixes the high bits of a hash into the low bits used for the slot.
+     *
+     * @param hash a String hash code
+     * @return the mixed hash
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * The words of a tokenized command. Owned by the tokenizer and
+     * overwritten by its next call.
+     */
+    public static class Tokens {
+
+        /**
+         * The words, of which the first count are in use.
+         */
+        private String[] words = new String[4];
+
+        /**
+         * The symbol of each word, or -1 for a word the game does not know.
+         */
+        private int[] symbols = new int[4];
+
+        /**
+         * The number of words.
+         */
+        private int count;
+
+        /**
+         * Appends a word.
+         *
+         * @param word the word to append
+         * @param symbol the symbol of the word, or -1
+         */
+        private void add(String word, int symbol) {
+            if (count == words.length) {
+                words = Arrays.copyOf(words, count * 2);
+                symbols = Arrays.copyOf(symbols, count * 2);
+            }
+            words[count] = word;
+            symbols[count++] = symbol;
+        }
+
+        /**
+         * Returns the number of words.
+         *
+         * @return the number of words
+         */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * Returns a word.
+         *
+         * @param index the position of the word
+         * @return the word
+         */
+        public String get(int index) {
+            if (index >= count) throw new IndexOutOfBoundsException(index);
+            return words[index];
+        }
+
+        /**
+         * Returns the symbol of a word.
+         *
+         * @param index the position of the word
+         * @return the symbol of the word, -1 if the game does not know it,
+         * or below -1 for a word only this session knows (see addLocalWord)
+         */
+        public int symbol(int index) {
+            if (index >= count) throw new IndexOutOfBoundsException(index);
+            return symbols[index];
+        }
+
+        /**
+         * Copies the words into a new array.
+         *
+         * @return the words
+         */
+        public String[] toArray() {
+            return Arrays.copyOf(words, count);
+        }
+    }
+}
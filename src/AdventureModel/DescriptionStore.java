@@ -0,0 +1,127 @@
+package AdventureModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Class DescriptionStore. Keeps the rooms file memory-mapped so that
+ * room descriptions can stay on disk until a room is looked at.
+ *
+ * Each lazy Room remembers where its description lines are in the file.
+ * The first call to getRoomDescription decodes them here, and the result
+ * is kept in a small least-recently-used cache, so the heap only holds
+ * the descriptions of rooms the player has been to lately.
+ *
+ * Files over 1GB are mapped in several segments. A description that
+ * crosses two segments is copied out piece by piece.
+ */
+class DescriptionStore {
+
+    /**
+     * The size of each mapped segment.
+     */
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    /**
+     * The mapped segments of the file, in order.
+     */
+    private final MappedByteBuffer[] segments;
+
+    /**
+     * Decoded descriptions by room number, least recently used first.
+     */
+    private final LinkedHashMap<Integer, String> cache;
+
+    /**
+     * DescriptionStore Constructor.
+     * The file is mapped read only; the channel is closed straight away,
+     * which leaves the mapping valid.
+     *
+     * @param file the rooms file
+     * @param cacheSize how many decoded descriptions to keep
+     * @throws IOException in the case of a file I/O error.
+     */
+    DescriptionStore(File file, int cacheSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+            }
+        }
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the description of a room, as Room.getRoomDescription shows it.
+     *
+     * @param roomNumber the number of the room, used as the cache key
+     * @param offset the byte offset of the first description line
+     * @param length the number of bytes up to the "-----" line
+     * @return the description, with its lines joined by spaces
+     */
+    String get(int roomNumber, long offset, int length) {
+        synchronized (cache) {
+            String description = cache.get(roomNumber);
+            if (description != null) return description;
+        }
+        String description = decode(offset, length);
+        synchronized (cache) {
+            cache.put(roomNumber, description);
+        }
+        return description;
+    }
+
+    /**
+     * Returns the number of decoded descriptions being kept.
+     *
+     * @return the size of the cache
+     */
+    int cachedCount() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Decodes description lines the same way an eagerly loaded Room
+     * normalizes them: every line break becomes a space, and one more
+     * space stands for the blank line the loader always appended.
+     *
+     * @param offset the byte offset of the first description line
+     * @param length the number of bytes up to the "-----" line
+     * @return the description
+     */
+    private String decode(long offset, int length) {
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            long position = offset + copied;
+            MappedByteBuffer segment = segments[(int) (position / SEGMENT_SIZE)];
+            int index = (int) (position % SEGMENT_SIZE);
+            int chunk = Math.min(length - copied, segment.limit() - index);
+            segment.get(index, bytes, copied, chunk); // absolute, so readers on other threads do not interfere
+            copied += chunk;
+        }
+
+        int n = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = bytes[i];
+            if (b == '\r' && i + 1 < length && bytes[i + 1] == '\n') continue;
+            bytes[n++] = b == '\n' ? (byte) ' ' : b;
+        }
+        return new String(bytes, 0, n, StandardCharsets.UTF_8) + " ";
+    }
+}
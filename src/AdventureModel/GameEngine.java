@@ -0,0 +1,99 @@
+package AdventureModel;
+
+import java.io.IOException;
+
+/**
+ * Class GameEngine. Runs commands against an AdventureGame without
+ * any user interface, so that the game can be driven by tests, bots
+ * or servers as well as by the JavaFX view.
+ *
+ * The engine owns the full command semantics, including the verbs
+ * that only make sense with a display (LOOK, HELP, COMMANDS, INVENTORY
+ * and OBJECTS), and reports every outcome as a CommandResult.
+ * The verbs themselves live in the game's VerbRegistry.
+ *
+ * An engine can keep a CommandJournal, in which case every command
+ * that may have changed the game is written down after it runs.
+ */
+public class GameEngine {
+
+    /**
+     * The game being played.
+     */
+    private final AdventureGame model;
+
+    /**
+     * Where commands are written down, or null.
+     */
+    private CommandJournal journal;
+
+    /**
+     * GameEngine Constructor.
+     *
+     * @param model the game to run commands against
+     */
+    public GameEngine(AdventureGame model) {
+        this.model = model;
+    }
+
+    /**
+     * Submit a command to the game.
+     *
+     * @param text the command as typed by the player
+     * @return the outcome of the command
+     */
+    public CommandResult submit(String text) {
+        CommandResult result = this.model.execute(text);
+        if (this.journal != null && changesGame(result)) {
+            try {
+                this.journal.append(text);
+            } catch (IOException e) {
+                System.err.println("Could not journal \"" + text + "\": " + e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Tells whether a command may have changed the game, going by its outcome.
+     * Commands that only show something, or that were not understood, did not.
+     *
+     * @param result the outcome of the command
+     * @return true if the command has to be journaled
+     */
+    private static boolean changesGame(CommandResult result) {
+        switch (result.getType()) {
+            case LOOK: case HELP: case COMMANDS: case INVENTORY: case OBJECTS:
+                return false;
+            default:
+                return result != CommandResult.INVALID;
+        }
+    }
+
+    /**
+     * Setter method for the journal attribute.
+     *
+     * @param journal where to write commands down, or null to stop
+     */
+    public void setJournal(CommandJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Getter method for the journal attribute.
+     *
+     * @return where commands are written down, or null
+     */
+    public CommandJournal getJournal() {
+        return this.journal;
+    }
+
+    /**
+     * Getter method for the model attribute.
+     *
+     * @return the game being played
+     */
+    public AdventureGame getModel() {
+        return this.model;
+    }
+}
@@ -0,0 +1,384 @@
+package AdventureModel;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Class LegacySaveReader. Reads games saved with Java serialization, as
+ * every save was before SaveCodec: a serialized AdventureGame holding the
+ * whole game, with its rooms, passages and objects.
+ *
+ * AdventureGame, Room, Player, PassageTable, Passage and AdventureObject
+ * have changed shape since, so those saves cannot be read into them.
+ * Instead, wherever the stream describes one of those classes as it was
+ * then (same name, same serialVersionUID), the description is swapped for
+ * one of the private classes below, which have the fields and the
+ * serialVersionUIDs the classes had. The game is then rebuilt on the World
+ * of its directory: the player's room, the inventory, the objects of each
+ * room and the rooms visited are matched up by room number and object name.
+ * Where several objects share a name, the one with the saved description
+ * and starting room is taken.
+ *
+ * A stream of an AdventureGame as it is now is read as it is.
+ */
+final class LegacySaveReader {
+
+    /**
+     * Only the classes of the game, and the collections and boxes they use, may be in a save.
+     */
+    private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter("AdventureModel.*;java.util.*;java.lang.*;!*");
+
+    /**
+     * The classes as they were, by the name they were saved under.
+     */
+    private static final Map<String, Class<?>> SAVED_CLASSES = Map.of(
+            "AdventureModel.AdventureGame", SavedGame.class,
+            "AdventureModel.Room", SavedRoom.class,
+            "AdventureModel.Player", SavedPlayer.class,
+            "AdventureModel.PassageTable", SavedPassageTable.class,
+            "AdventureModel.Passage", SavedPassage.class,
+            "AdventureModel.AdventureObject", SavedObject.class);
+
+    /**
+     * No instances; everything is static.
+     */
+    private LegacySaveReader() {
+    }
+
+    /**
+     * Reads a serialized AdventureGame, of either shape.
+     *
+     * @param bytes the save
+     * @return the game
+     * @throws IOException if the world cannot be loaded, or the save is damaged or does not fit it
+     */
+    static AdventureGame read(byte[] bytes) throws IOException {
+        Object saved;
+        try (ObjectInputStream in = new SavedClassInputStream(new ByteArrayInputStream(bytes))) {
+            in.setObjectInputFilter(FILTER);
+            saved = in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new InvalidObjectException("Not a saved game: " + e.getMessage());
+        }
+        if (saved instanceof SavedGame) return ((SavedGame) saved).toGame();
+        if (saved instanceof AdventureGame) return (AdventureGame) saved;
+        throw new InvalidObjectException("Not a saved game: " + (saved == null ? "null" : saved.getClass().getName()));
+    }
+
+    /**
+     * An ObjectInputStream that reads the classes of the game as they were saved.
+     */
+    private static class SavedClassInputStream extends ObjectInputStream {
+
+        /**
+         * SavedClassInputStream Constructor.
+         *
+         * @param in the stream to read from
+         * @throws IOException if the stream header cannot be read
+         */
+        SavedClassInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        /**
+         * Reads a class description, and swaps it for the matching
+         * saved class if it is one of the classes as they were.
+         *
+         * @return the class description to read objects with
+         * @throws IOException if the stream is damaged
+         * @throws ClassNotFoundException if the description names a class that cannot be found
+         */
+        @Override
+        protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+            ObjectStreamClass description = super.readClassDescriptor();
+            Class<?> saved = SAVED_CLASSES.get(description.getName());
+            if (saved == null) return description;
+            ObjectStreamClass savedDescription = ObjectStreamClass.lookup(saved);
+            return savedDescription.getSerialVersionUID() == description.getSerialVersionUID() ? savedDescription : description;
+        }
+    }
+
+    /**
+     * AdventureGame, as it was saved.
+     */
+    private static class SavedGame implements Serializable {
+
+        /**
+         * The serialVersionUID AdventureGame had.
+         */
+        private static final long serialVersionUID = 7406223672191048134L;
+
+        /**
+         * The directory the game files live in.
+         */
+        private String directoryName;
+
+        /**
+         * The help text, which now comes from the World.
+         */
+        private String helpText;
+
+        /**
+         * Every room of the game, by room number.
+         */
+        private HashMap<Integer, SavedRoom> rooms;
+
+        /**
+         * The synonyms, which now come from the World.
+         */
+        private HashMap<String, String> synonyms;
+
+        /**
+         * The action verbs, which now come from the VerbRegistry.
+         */
+        private String[] actionVerbs;
+
+        /**
+         * The player.
+         */
+        private SavedPlayer player;
+
+        /**
+         * Rebuilds the game on the World of its directory.
+         *
+         * @return the game
+         * @throws IOException if the world cannot be loaded, or the save does not fit it
+         */
+        AdventureGame toGame() throws IOException {
+            if (this.directoryName == null || this.player == null || this.player.currentRoom == null || this.rooms == null) {
+                throw new InvalidObjectException("The save is missing part of its game");
+            }
+            World world = World.load(new File(this.directoryName), LoadOptions.defaults());
+            AdventureGame game = new AdventureGame(world);
+            game.getPlayer().setCurrentRoom(room(world, this.player.currentRoom.roomNumber));
+            addObjects(world, this.player.inventory, game.getPlayer().inventory);
+
+            for (SavedRoom saved : this.rooms.values()) {
+                Room room = room(world, saved.roomNumber);
+                if (!sameObjects(saved.objectsInRoom, room.objectsInRoom)) {
+                    ObjectContainer objects = new ObjectContainer();
+                    addObjects(world, saved.objectsInRoom, objects);
+                    game.getChangedRooms().put(room.getRoomNumber(), objects);
+                }
+                if (saved.isVisited) game.visit(room);
+            }
+            return game;
+        }
+
+        /**
+         * Looks up a saved room number.
+         *
+         * @param world the world the room is in
+         * @param number the room number
+         * @return the room
+         * @throws InvalidObjectException if there is no such room
+         */
+        private static Room room(World world, int number) throws InvalidObjectException {
+            Room room = world.getRooms().get(number);
+            if (room == null) throw new InvalidObjectException("The saved room " + number + " is not in " + world.getDirectoryName());
+            return room;
+        }
+
+        /**
+         * Adds the objects of the world that match some saved objects to a container.
+         *
+         * @param world the world the objects are in
+         * @param saved the saved objects, or null for none
+         * @param objects the container to fill
+         * @throws InvalidObjectException if an object is not in the world
+         */
+        private static void addObjects(World world, List<SavedObject> saved, ObjectContainer objects) throws InvalidObjectException {
+            if (saved == null) return;
+            for (SavedObject object : saved) objects.add(match(world, object));
+        }
+
+        /**
+         * Finds the object of the world a saved object was: the one with its
+         * name and, among objects sharing that name, the one that agrees with
+         * it most on description and starting room.
+         *
+         * @param world the world the object is in
+         * @param saved the saved object
+         * @return the object
+         * @throws InvalidObjectException if no object of the world has its name
+         */
+        private static AdventureObject match(World world, SavedObject saved) throws InvalidObjectException {
+            int id = world.getObjectId(saved.objectName);
+            if (id < 0 || world.getCopyCount(id) == 0) {
+                throw new InvalidObjectException("Object " + saved.objectName + " is not in " + world.getDirectoryName());
+            }
+            AdventureObject best = world.getObject(id, 0);
+            int bestScore = -1;
+            for (int copy = 0; copy < world.getCopyCount(id); copy++) {
+                AdventureObject object = world.getObject(id, copy);
+                int score = 0;
+                if (Objects.equals(object.getDescription(), saved.description)) score += 2;
+                if (saved.location != null && object.getLocation() != null && object.getLocation().getRoomNumber() == saved.location.roomNumber) score++;
+                if (score > bestScore) {
+                    best = object;
+                    bestScore = score;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Checks whether some saved objects have the names and descriptions
+         * of the objects in a container, in order.
+         *
+         * @param saved the saved objects, or null for none
+         * @param objects the objects in the container
+         * @return true if the names and descriptions are the same
+         */
+        private static boolean sameObjects(List<SavedObject> saved, ObjectContainer objects) {
+            if (saved == null) return objects.isEmpty();
+            if (saved.size() != objects.size()) return false;
+            Iterator<SavedObject> names = saved.iterator();
+            for (AdventureObject object : objects) {
+                SavedObject next = names.next();
+                if (!object.getName().equals(next.objectName) || !Objects.equals(object.getDescription(), next.description)) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Room, as it was saved.
+     */
+    private static class SavedRoom implements Serializable {
+
+        /**
+         * The serialVersionUID Room had.
+         */
+        private static final long serialVersionUID = -4467758469354084114L;
+
+        /**
+         * The name of the game.
+         */
+        private String adventureName;
+
+        /**
+         * The number of the room.
+         */
+        private int roomNumber;
+
+        /**
+         * The name of the room.
+         */
+        private String roomName;
+
+        /**
+         * The description of the room.
+         */
+        private String roomDescription;
+
+        /**
+         * The passage table of the room.
+         */
+        private SavedPassageTable motionTable;
+
+        /**
+         * The objects in the room, as the game was saved.
+         */
+        private ArrayList<SavedObject> objectsInRoom;
+
+        /**
+         * Whether the room was visited.
+         */
+        private boolean isVisited;
+    }
+
+    /**
+     * Player, as it was saved.
+     */
+    private static class SavedPlayer implements Serializable {
+
+        /**
+         * The serialVersionUID Player had.
+         */
+        private static final long serialVersionUID = 7113368998011675271L;
+
+        /**
+         * The room the player was in.
+         */
+        private SavedRoom currentRoom;
+
+        /**
+         * The objects the player carried.
+         */
+        private ArrayList<SavedObject> inventory;
+    }
+
+    /**
+     * PassageTable, as it was saved. Passages now come from the World.
+     */
+    private static class SavedPassageTable implements Serializable {
+
+        /**
+         * The serialVersionUID PassageTable had.
+         */
+        private static final long serialVersionUID = 2655435523811475012L;
+
+        /**
+         * The passages.
+         */
+        private List<SavedPassage> passageTable;
+    }
+
+    /**
+     * Passage, as it was saved. Passages now come from the World.
+     */
+    private static class SavedPassage implements Serializable {
+
+        /**
+         * The serialVersionUID Passage had.
+         */
+        private static final long serialVersionUID = -6804376525554227124L;
+
+        /**
+         * The direction of the passage.
+         */
+        private String direction;
+
+        /**
+         * The room the passage leads to.
+         */
+        private int destinationRoom;
+
+        /**
+         * The object needed to pass, if any.
+         */
+        private String keyName;
+
+        /**
+         * Whether the passage needs an object to pass.
+         */
+        private boolean isBlocked;
+    }
+
+    /**
+     * AdventureObject, as it was saved.
+     */
+    private static class SavedObject implements Serializable {
+
+        /**
+         * The serialVersionUID AdventureObject had.
+         */
+        private static final long serialVersionUID = -7291328380625325976L;
+
+        /**
+         * The name of the object.
+         */
+        private String objectName;
+
+        /**
+         * The description of the object, which now comes from the World.
+         */
+        private String description;
+
+        /**
+         * The room the object started in.
+         */
+        private SavedRoom location;
+    }
+}
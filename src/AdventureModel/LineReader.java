@@ -0,0 +1,178 @@
+package AdventureModel;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Class LineReader. Reads a UTF-8 game file one line at a time,
+ * keeping track of the line number and the byte offset of each line
+ * so that AdventureLoader can report errors and remember where
+ * things are in the file.
+ *
+ * Lines end with "\n" or "\r\n"; the terminator is not returned.
+ */
+class LineReader implements Closeable {
+
+    /**
+     * The file being read.
+     */
+    private final InputStream in;
+
+    /**
+     * The name of the file, for error messages.
+     */
+    private final String fileName;
+
+    /**
+     * Bytes read from the file but not yet returned.
+     */
+    private final byte[] buffer = new byte[1 << 16];
+
+    /**
+     * The next unread byte in the buffer, and the end of the valid bytes.
+     */
+    private int next, limit;
+
+    /**
+     * Holds a line that spans more than one buffer fill.
+     */
+    private byte[] line = new byte[256];
+
+    /**
+     * The byte offset in the file of the start of the next buffer fill.
+     */
+    private long fillOffset;
+
+    /**
+     * The byte offset of the start of the last line returned, and of the line after it.
+     */
+    private long lineStart, lineEnd;
+
+    /**
+     * The number of the last line returned, counting from 1.
+     */
+    private int lineNumber;
+
+    /**
+     * LineReader Constructor.
+     *
+     * @param file the file to read
+     * @throws IOException in the case of a file I/O error.
+     */
+    LineReader(File file) throws IOException {
+        this(new FileInputStream(file), file.getName(), 0, 0);
+    }
+
+    /**
+     * LineReader Constructor, for a stream positioned somewhere inside a file.
+     *
+     * @param in the stream to read
+     * @param fileName the name of the file, for error messages
+     * @param startOffset the byte offset in the file of the first byte of the stream
+     * @param startLine the number of lines in the file before the first byte of the stream
+     */
+    LineReader(InputStream in, String fileName, long startOffset, int startLine) {
+        this.in = in;
+        this.fileName = fileName;
+        this.fillOffset = startOffset;
+        this.lineEnd = startOffset;
+        this.lineNumber = startLine;
+    }
+
+    /**
+     * Reads the next line.
+     *
+     * @return the line without its terminator, or null at the end of the file
+     * @throws IOException in the case of a file I/O error.
+     */
+    String readLine() throws IOException {
+        int length = 0;
+        boolean sawAny = false;
+        long start = lineEnd;
+        while (true) {
+            if (next == limit) {
+                fillOffset += limit;
+                next = 0;
+                limit = Math.max(in.read(buffer), 0);
+                if (limit == 0) {
+                    if (!sawAny) return null;
+                    lineEnd = fillOffset;
+                    break;
+                }
+            }
+            sawAny = true;
+            int from = next;
+            while (next < limit && buffer[next] != '\n') next++;
+            int chunk = next - from;
+            if (length + chunk > line.length) line = Arrays.copyOf(line, Math.max(line.length * 2, length + chunk));
+            System.arraycopy(buffer, from, line, length, chunk);
+            length += chunk;
+            if (next < limit) { // found the terminator
+                next++;
+                lineEnd = fillOffset + next;
+                break;
+            }
+        }
+        lineStart = start;
+        lineNumber++;
+        if (length > 0 && line[length - 1] == '\r') length--;
+        return decode(line, length);
+    }
+
+    /**
+     * Decodes a line, without going through the UTF-8 decoder for plain ASCII.
+     *
+     * @param bytes the bytes of the line
+     * @param length the number of bytes
+     * @return the line
+     */
+    private static String decode(byte[] bytes, int length) {
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] < 0) return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+        return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Returns the number of the last line returned.
+     *
+     * @return the line number, counting from 1
+     */
+    int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Returns the byte offset of the start of the last line returned.
+     *
+     * @return the byte offset in the file
+     */
+    long getLineStart() {
+        return lineStart;
+    }
+
+    /**
+     * Returns the byte offset just past the last line returned, i.e. the start of the next line.
+     *
+     * @return the byte offset in the file
+     */
+    long getLineEnd() {
+        return lineEnd;
+    }
+
+    /**
+     * Builds an exception for the last line returned.
+     *
+     * @param message what is wrong with the line
+     * @return the exception to throw
+     */
+    WorldFormatException error(String message) {
+        return new WorldFormatException(fileName, lineNumber, message);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
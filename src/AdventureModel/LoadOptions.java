@@ -0,0 +1,122 @@
+package AdventureModel;
+
+/**
+ * Class LoadOptions. Settings for how AdventureLoader reads a game.
+ * The defaults load everything onto the heap, as the game always has;
+ * the other settings are meant for very large generated worlds.
+ */
+public class LoadOptions {
+
+    /**
+     * Whether room descriptions are left in the memory-mapped rooms file
+     * and only decoded when a room is looked at.
+     */
+    private boolean lazyDescriptions;
+
+    /**
+     * How many decoded descriptions to keep when descriptions are lazy.
+     */
+    private int descriptionCacheSize = 1024;
+
+    /**
+     * Whether the game files, and chunks of a large rooms file, are read on several threads.
+     */
+    private boolean parallel;
+
+    /**
+     * Whether an up to date world.pack is loaded in place of the text files.
+     */
+    private boolean usePack;
+
+    /**
+     * Returns the default options: everything is loaded eagerly.
+     *
+     * @return new default options
+     */
+    public static LoadOptions defaults() {
+        return new LoadOptions();
+    }
+
+    /**
+     * Getter method for the lazyDescriptions attribute.
+     *
+     * @return true if room descriptions are decoded on first access
+     */
+    public boolean getLazyDescriptions() {
+        return this.lazyDescriptions;
+    }
+
+    /**
+     * Setter method for the lazyDescriptions attribute.
+     *
+     * @param lazyDescriptions true to decode room descriptions on first access
+     * @return these options
+     */
+    public LoadOptions setLazyDescriptions(boolean lazyDescriptions) {
+        this.lazyDescriptions = lazyDescriptions;
+        return this;
+    }
+
+    /**
+     * Getter method for the descriptionCacheSize attribute.
+     *
+     * @return how many decoded descriptions are kept
+     */
+    public int getDescriptionCacheSize() {
+        return this.descriptionCacheSize;
+    }
+
+    /**
+     * Setter method for the descriptionCacheSize attribute.
+     *
+     * @param descriptionCacheSize how many decoded descriptions to keep, at least 1
+     * @return these options
+     */
+    public LoadOptions setDescriptionCacheSize(int descriptionCacheSize) {
+        if (descriptionCacheSize < 1) throw new IllegalArgumentException("The description cache needs room for at least one description");
+        this.descriptionCacheSize = descriptionCacheSize;
+        return this;
+    }
+
+    /**
+     * Getter method for the parallel attribute.
+     *
+     * @return true if the game files are read on several threads
+     */
+    public boolean getParallel() {
+        return this.parallel;
+    }
+
+    /**
+     * Setter method for the parallel attribute.
+     *
+     * @param parallel true to read the game files on several threads
+     * @return these options
+     */
+    public LoadOptions setParallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * Getter method for the usePack attribute.
+     *
+     * @return true if an up to date world.pack is loaded in place of the text files
+     */
+    public boolean getUsePack() {
+        return this.usePack;
+    }
+
+    /**
+     * Setter method for the usePack attribute. A pack that is missing,
+     * of another version, or older than the text files is ignored.
+     * Descriptions from a pack are never lazy.
+     *
+     * @param usePack true to load an up to date world.pack in place of the text files
+     * @return these options
+     */
+    public LoadOptions setUsePack(boolean usePack) {
+        this.usePack = usePack;
+        return this;
+    }
+}
@@ -0,0 +1,372 @@
+package AdventureModel;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.BitSet;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The ObjectContainer class holds the AdventureObjects in a room
+ * or in a player's inventory.
+ *
+ * Objects are kept in the order they were added, and can be
+ * looked up, checked and removed by name in constant time.
+ * Names need not be unique: a container keeps every object added
+ * to it, and looking up or removing by name finds the one with
+ * that name that was added first, as a search of a list would.
+ * The IDs of the objects are also kept in a bitset, so checking
+ * for an object by ID is a single bit test.
+ *
+ * The containers of a loaded World are frozen, since every session
+ * shares them; a session copies a room's container before changing it.
+ */
+public class ObjectContainer extends AbstractCollection<AdventureObject> implements Serializable {
+
+    /**
+     * The first object added, or null if the container is empty.
+     */
+    private transient Node first;
+
+    /**
+     * The last object added, or null if the container is empty.
+     */
+    private transient Node last;
+
+    /**
+     * The first object with each name. Later objects with the same name follow it through Node.sameName.
+     */
+    private transient HashMap<String, Node> byName;
+
+    /**
+     * The IDs of the objects in the container.
+     */
+    private transient BitSet ids;
+
+    /**
+     * The number of objects in the container.
+     */
+    private transient int size;
+
+    /**
+     * Counts changes, so iterators notice changes made behind their back.
+     */
+    private transient int changes;
+
+    /**
+     * True once the container may no longer change.
+     */
+    private boolean frozen;
+
+    /**
+     * ObjectContainer constructor.
+     */
+    public ObjectContainer() {
+        this.byName = new HashMap<>();
+        this.ids = new BitSet();
+    }
+
+    /**
+     * ObjectContainer constructor, copying another container.
+     * The copy is never frozen.
+     *
+     * @param other the container to copy
+     */
+    public ObjectContainer(ObjectContainer other) {
+        this();
+        for (Node node = other.first; node != null; node = node.next) link(node.object);
+    }
+
+    /**
+     * Stops the container from changing. Used for the
+     * containers of a World, which sessions share.
+     */
+    void freeze() {
+        this.frozen = true;
+    }
+
+    /**
+     * Checks whether the container may still change.
+     *
+     * @return true if the container is frozen
+     */
+    public boolean isFrozen() {
+        return this.frozen;
+    }
+
+    /**
+     * Throws if the container is frozen.
+     */
+    private void checkNotFrozen() {
+        if (this.frozen) throw new UnsupportedOperationException("The objects a room starts with cannot change");
+    }
+
+    /**
+     * Adds an object to the container, after the objects already in it,
+     * even if one of them has the same name.
+     *
+     * @param object the object to add
+     * @return true, as the container always changes
+     */
+    @Override
+    public boolean add(AdventureObject object) {
+        checkNotFrozen();
+        link(object);
+        return true;
+    }
+
+    /**
+     * Checks if an object with the given name is in the container.
+     *
+     * @param objectName the name of the object
+     * @return true if the object is present, false otherwise
+     */
+    public boolean containsName(String objectName) {
+        return this.byName.containsKey(objectName);
+    }
+
+    /**
+     * Checks if an object with the given ID is in the container.
+     *
+     * @param id the ID of the object
+     * @return true if the object is present, false otherwise
+     */
+    public boolean containsId(int id) {
+        return id >= 0 && this.ids.get(id);
+    }
+
+    /**
+     * Returns the object with the given name that was added first.
+     *
+     * @param objectName the name of the object
+     * @return the object, or null if it is not in the container
+     */
+    public AdventureObject get(String objectName) {
+        Node node = this.byName.get(objectName);
+        return node == null ? null : node.object;
+    }
+
+    /**
+     * Removes the object with the given name that was added first.
+     *
+     * @param objectName the name of the object
+     * @return the removed object, or null if it was not in the container
+     */
+    public AdventureObject removeByName(String objectName) {
+        checkNotFrozen();
+        Node node = this.byName.get(objectName);
+        if (node == null) return null;
+        unlink(node, null);
+        return node.object;
+    }
+
+    /**
+     * Removes the given object, if it is in the container.
+     * If it was added more than once, the first is removed.
+     *
+     * @param o the object to remove
+     * @return true if the object was removed, false otherwise
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof AdventureObject)) return false;
+        checkNotFrozen();
+        Node previous = null;
+        for (Node node = this.byName.get(((AdventureObject) o).getName()); node != null; node = node.sameName) {
+            if (node.object == o) {
+                unlink(node, previous);
+                return true;
+            }
+            previous = node;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof AdventureObject)) return false;
+        for (Node node = this.byName.get(((AdventureObject) o).getName()); node != null; node = node.sameName) {
+            if (node.object == o) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Iterator<AdventureObject> iterator() {
+        return new Iterator<AdventureObject>() {
+            private Node next = first;
+            private Node lastReturned;
+            private int expectedChanges = changes;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public AdventureObject next() {
+                if (changes != expectedChanges) throw new ConcurrentModificationException();
+                if (next == null) throw new NoSuchElementException();
+                lastReturned = next;
+                next = next.next;
+                return lastReturned.object;
+            }
+
+            @Override
+            public void remove() {
+                if (lastReturned == null) throw new IllegalStateException();
+                if (changes != expectedChanges) throw new ConcurrentModificationException();
+                checkNotFrozen();
+                unlink(lastReturned, sameNameBefore(lastReturned));
+                lastReturned = null;
+                expectedChanges = changes;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void clear() {
+        checkNotFrozen();
+        this.first = null;
+        this.last = null;
+        this.byName.clear();
+        this.ids.clear();
+        this.size = 0;
+        this.changes++;
+    }
+
+    /**
+     * Adds an object after the last one, without checking whether the container is frozen.
+     *
+     * @param object the object to add
+     */
+    private void link(AdventureObject object) {
+        Node node = new Node(object);
+        node.previous = this.last;
+        if (this.last == null) this.first = node;
+        else this.last.next = node;
+        this.last = node;
+
+        Node sameName = this.byName.putIfAbsent(object.getName(), node);
+        if (sameName != null) {
+            while (sameName.sameName != null) sameName = sameName.sameName;
+            sameName.sameName = node;
+        }
+        if (object.getId() >= 0) this.ids.set(object.getId());
+        this.size++;
+        this.changes++;
+    }
+
+    /**
+     * Takes an object out of the container.
+     *
+     * @param node the object's node
+     * @param sameNameBefore the node before it with the same name, or null if it is the first
+     */
+    private void unlink(Node node, Node sameNameBefore) {
+        if (node.previous == null) this.first = node.next;
+        else node.previous.next = node.next;
+        if (node.next == null) this.last = node.previous;
+        else node.next.previous = node.previous;
+
+        String name = node.object.getName();
+        if (sameNameBefore != null) sameNameBefore.sameName = node.sameName;
+        else if (node.sameName != null) this.byName.put(name, node.sameName);
+        else this.byName.remove(name);
+
+        // objects share an ID only if they share a name, so only those can still hold the bit
+        int id = node.object.getId();
+        if (id >= 0) {
+            boolean held = false;
+            for (Node other = this.byName.get(name); other != null && !held; other = other.sameName) held = other.object.getId() == id;
+            if (!held) this.ids.clear(id);
+        }
+        this.size--;
+        this.changes++;
+    }
+
+    /**
+     * Finds the node before a node with the same name.
+     *
+     * @param node a node in the container
+     * @return the node before it with the same name, or null if it is the first
+     */
+    private Node sameNameBefore(Node node) {
+        Node previous = null;
+        for (Node other = this.byName.get(node.object.getName()); other != node; other = other.sameName) previous = other;
+        return previous;
+    }
+
+    /**
+     * Writes the container: whether it is frozen, then its objects in order.
+     *
+     * @param out the stream to write to
+     * @throws IOException in the case of a file I/O error
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(this.size);
+        for (Node node = this.first; node != null; node = node.next) out.writeObject(node.object);
+    }
+
+    /**
+     * Reads a container written by writeObject.
+     *
+     * @param in the stream to read from
+     * @throws IOException in the case of a file I/O error
+     * @throws ClassNotFoundException if the stream holds an unknown class
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.byName = new HashMap<>();
+        this.ids = new BitSet();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) link((AdventureObject) in.readObject());
+    }
+
+    /**
+     * An object in the container, linked to the objects before and after
+     * it, and to the next object with the same name.
+     */
+    private static final class Node {
+
+        /**
+         * The object.
+         */
+        final AdventureObject object;
+
+        /**
+         * The object added before this one, or null.
+         */
+        Node previous;
+
+        /**
+         * The object added after this one, or null.
+         */
+        Node next;
+
+        /**
+         * The next object with the same name, or null.
+         */
+        Node sameName;
+
+        /**
+         * Node Constructor.
+         *
+         * @param object the object
+         */
+        Node(AdventureObject object) {
+            this.object = object;
+        }
+    }
+}
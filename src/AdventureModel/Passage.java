@@ -16,6 +16,11 @@ public class Passage implements Serializable {
      */
     private String direction;
 
+    /**
+     * The symbol of the direction in the game's SymbolTable, or -1 if unset.
+     */
+    private int directionSymbol = -1;
+
     /**
      * The number of the room that this exit leads to.
      */
@@ -26,6 +31,12 @@ public class Passage implements Serializable {
      */
     private String keyName;
 
+    /**
+     * The ID of the object required to move along this passage,
+     * or -1 if no object is required or the key is not a known object.
+     */
+    private int keyId = -1;
+
     /**
      * This stores boolean to represent if the passage is blocked.
      */
@@ -57,6 +68,22 @@ public class Passage implements Serializable {
         this.isBlocked = true;
     }
 
+    /**
+     * MotionTableEntry constructor, for a passage read from a world pack.
+     *
+     * @param direction The name of the direction, as held by the SymbolTable.
+     * @param directionSymbol The symbol of the direction.
+     * @param destinationRoom The number of the room the passage leads to.
+     * @param key The name of the object needed to pass, or null if the passage is not blocked.
+     */
+    Passage(String direction, int directionSymbol, int destinationRoom, String key) {
+        this.direction = direction;
+        this.directionSymbol = directionSymbol;
+        this.destinationRoom = destinationRoom;
+        this.keyName = key;
+        this.isBlocked = key != null;
+    }
+
     /**
      * Returns the direction associated with this motion table entry.
      *
@@ -66,6 +93,27 @@ public class Passage implements Serializable {
         return this.direction;
     }
 
+    /**
+     * Returns the symbol of the direction associated with this motion table entry.
+     *
+     * @return The symbol of the direction, or -1 if it was never set.
+     */
+    public int getDirectionSymbol() {
+        return this.directionSymbol;
+    }
+
+    /**
+     * Sets the direction associated with this motion table entry
+     * to the shared name of a symbol.
+     *
+     * @param direction The name of the direction, as held by the SymbolTable.
+     * @param directionSymbol The symbol of the direction.
+     */
+    void setDirection(String direction, int directionSymbol) {
+        this.direction = direction;
+        this.directionSymbol = directionSymbol;
+    }
+
     /**
      * Returns the number of the room that this motion table entry leads to.
      *
@@ -85,6 +133,24 @@ public class Passage implements Serializable {
         return this.keyName;
     }
 
+    /**
+     * Returns the ID of the object required to move along this passage.
+     *
+     * @return The ID of the required object, or -1 if there is none.
+     */
+    public int getKeyId() {
+        return this.keyId;
+    }
+
+    /**
+     * Sets the ID of the object required to move along this passage.
+     *
+     * @param keyId The ID of the required object.
+     */
+    void setKeyId(int keyId) {
+        this.keyId = keyId;
+    }
+
     /**
      * Returns if the passage is blocked.
      *
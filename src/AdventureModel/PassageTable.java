@@ -14,24 +14,129 @@ public class PassageTable implements Serializable {
      */
     public List<Passage> passageTable;
 
+    /**
+     * The direction symbols of the table, in order of first appearance.
+     */
+    private int[] directions;
+
+    /**
+     * The Passages in each direction of the directions array.
+     * Blocked passages come before unblocked ones; otherwise the
+     * order of the passages in the rooms file is kept.
+     */
+    private Passage[][] candidates;
+
+    /**
+     * The number of distinct directions.
+     */
+    private int directionCount;
+
+    /**
+     * An open-addressing index from direction symbol to position in
+     * the directions array, stored as position + 1 (0 is an empty slot).
+     */
+    private int[] index;
+
     /**
      * PassageTable constructor
      */
     public PassageTable() {
         this.passageTable = new ArrayList<>();
+        this.directions = new int[4];
+        this.candidates = new Passage[4][];
+        this.index = new int[8];
     }
 
     /**
      * This method adds an exit or passage
-     * to the table.
+     * to the table. The direction symbol of
+     * the passage must already be set.
      *
      * @param entry A Passage which keeps track of a
      *             particular exit from a room.
      */
     void addDirection(Passage entry) {
         passageTable.add(entry);
+
+        int position = find(entry.getDirectionSymbol());
+        if (position < 0) {
+            addNewDirection(entry.getDirectionSymbol(), new Passage[] {entry});
+            return;
+        }
+        Passage[] passages = candidates[position];
+        int insertAt = passages.length;
+        if (entry.getIsBlocked()) { // goes after the last blocked passage
+            insertAt = 0;
+            while (insertAt < passages.length && passages[insertAt].getIsBlocked()) insertAt++;
+        }
+        Passage[] grown = new Passage[passages.length + 1];
+        System.arraycopy(passages, 0, grown, 0, insertAt);
+        grown[insertAt] = entry;
+        System.arraycopy(passages, insertAt, grown, insertAt + 1, passages.length - insertAt);
+        candidates[position] = grown;
+    }
+
+    /**
+     * Adds a direction that is not yet in the table.
+     *
+     * @param symbol the direction symbol
+     * @param passages the Passages in that direction
+     */
+    private void addNewDirection(int symbol, Passage[] passages) {
+        if (directionCount == directions.length) {
+            directions = Arrays.copyOf(directions, directionCount * 2);
+            candidates = Arrays.copyOf(candidates, directionCount * 2);
+        }
+        directions[directionCount] = symbol;
+        candidates[directionCount] = passages;
+        directionCount++;
+
+        if (2 * directionCount > index.length) {
+            index = new int[index.length * 2];
+            for (int i = 0; i < directionCount; i++) insertIndex(directions[i], i);
+        } else {
+            insertIndex(symbol, directionCount - 1);
+        }
     }
 
+    /**
+     * Puts a direction into the open-addressing index.
+     *
+     * @param symbol the direction symbol
+     * @param position the position of the direction in the directions array
+     */
+    private void insertIndex(int symbol, int position) {
+        int mask = index.length - 1;
+        int slot = mix(symbol) & mask;
+        while (index[slot] != 0) slot = (slot + 1) & mask;
+        index[slot] = position + 1;
+    }
+
+    /**
+     * Finds a direction in the table.
+     *
+     * @param symbol the direction symbol
+     * @return its position in the directions array, or -1 if absent
+     */
+    private int find(int symbol) {
+        int mask = index.length - 1;
+        for (int slot = mix(symbol) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+            int position = index[slot] - 1;
+            if (directions[position] == symbol) return position;
+        }
+        return -1;
+    }
+
+    /**
+     * Scatters consecutive symbols across the index.
+     *
+     * @param symbol the direction symbol
+     * @return the mixed value
+     */
+    private static int mix(int symbol) {
+        int h = symbol * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
 
     /**
      * Getter method for passage table.
@@ -40,6 +145,53 @@ public class PassageTable implements Serializable {
      */
     public List<Passage> getDirection(){ return this.passageTable; }
 
+    /**
+     * Returns the Passages in the given direction, blocked passages first.
+     * The returned array is shared and must not be modified.
+     *
+     * @param directionSymbol the symbol of the direction to look up
+     * @return the candidate Passages, or null if there are none
+     */
+    public Passage[] getPassages(int directionSymbol) {
+        int position = find(directionSymbol);
+        return position < 0 ? null : candidates[position];
+    }
+
+    /**
+     * Returns the Passages in the given direction, blocked passages first.
+     * Prefer the symbol version; this one compares names.
+     *
+     * @param direction the direction to look up
+     * @return the candidate Passages, or null if there are none
+     */
+    public Passage[] getPassages(String direction) {
+        for (int i = 0; i < directionCount; i++) {
+            if (candidates[i][0].getDirection().equals(direction)) return candidates[i];
+        }
+        return null;
+    }
+
+    /**
+     * Returns the distinct directions of the table, in order of first appearance.
+     *
+     * @return the direction names
+     */
+    public List<String> getDirectionNames() {
+        List<String> names = new ArrayList<>(directionCount);
+        for (int i = 0; i < directionCount; i++) names.add(candidates[i][0].getDirection());
+        return names;
+    }
+
+    /**
+     * Determine if the first passage in this table is a FORCED one,
+     * i.e. the player is moved on without being asked.
+     *
+     * @return true if the table starts with a FORCED passage, else false
+     */
+    public boolean isForced() {
+        return directionCount > 0 && candidates[0][0].getDirection().equals("FORCED");
+    }
+
     /**
      * Pretty print the table.
      */
@@ -49,6 +201,16 @@ public class PassageTable implements Serializable {
         }
     }
 
+    /**
+     * Determine if a given command is an option in the current table
+     *
+     * @param directionSymbol the symbol of the option to assess
+     * @return true if option exists in MotionTable, else false
+     */
+    public boolean optionExists(int directionSymbol) {
+        return find(directionSymbol) >= 0;
+    }
+
     /**
      * Determine if a given command is an option in the current table
      *
@@ -56,10 +218,7 @@ public class PassageTable implements Serializable {
      * @return true if option exists in MotionTable, else false
      */
     public boolean optionExists(String direction) {
-        for (Passage m : this.passageTable) {
-            if (m.getDirection().equals(direction)) return true;
-        }
-        return false;
+        return getPassages(direction) != null;
     }
 
-}
\ No newline at end of file
+}
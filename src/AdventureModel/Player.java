@@ -16,16 +16,36 @@ public class Player implements Serializable {
     /**
      * The list of items that the player is carrying at the moment.
      */
-    public ArrayList<AdventureObject> inventory;
+    public ObjectContainer inventory;
 
     /**
-     * Adventure Game Player Constructor.
+     * The session the player is playing in, which knows where objects
+     * are now. The rooms themselves only know where objects start.
+     */
+    private transient AdventureGame game;
+
+    /**
+     * Adventure Game Player Constructor. Players are made by the
+     * AdventureGame they play in; see AdventureGame.getPlayer.
      *
      * @param currentRoom The room the player is currently at.
+     * @param game The session the player is playing in.
      */
-    public Player(Room currentRoom) {
-        this.inventory = new ArrayList<AdventureObject>();
+    Player(Room currentRoom, AdventureGame game) {
+        this.inventory = new ObjectContainer();
         this.currentRoom = currentRoom;
+        this.game = game;
+    }
+
+    /**
+     * Returns the objects in the current room now.
+     *
+     * @param change true if they are about to change
+     * @return the objects in the current room
+     */
+    private ObjectContainer objectsHere(boolean change) {
+        if (this.game == null) throw new IllegalStateException("The player is not in a game");
+        return change ? this.game.changeObjectsInRoom(this.currentRoom) : this.game.getObjectsInRoom(this.currentRoom);
     }
 
     /**
@@ -37,9 +57,9 @@ public class Player implements Serializable {
      * @return true if picked up, false otherwise
      */
     public boolean takeObject(String object){
-        if(this.currentRoom.checkIfObjectInRoom(object)){
-            AdventureObject object1 = this.currentRoom.getObject(object);
-            this.currentRoom.removeGameObject(object1);
+        AdventureObject object1 = objectsHere(false).get(object);
+        if(object1 != null){
+            objectsHere(true).remove(object1);
             this.addToInventory(object1);
             return true;
         } else {
@@ -57,10 +77,20 @@ public class Player implements Serializable {
      * @return true if object is in inventory, false otherwise
      */
     public boolean checkIfObjectInInventory(String s) {
-        for(int i = 0; i<this.inventory.size();i++){
-            if(this.inventory.get(i).getName().equals(s)) return true;
-        }
-        return false;
+        return this.inventory.containsName(s);
+    }
+
+
+    /**
+     * hasObject
+     * __________________________
+     * This method checks to see if an object is in a player's inventory by ID.
+     *
+     * @param id the ID of the object
+     * @return true if object is in inventory, false otherwise
+     */
+    public boolean hasObject(int id) {
+        return this.inventory.containsId(id);
     }
 
 
@@ -71,12 +101,8 @@ public class Player implements Serializable {
      * @param s name of the object to drop
      */
     public void dropObject(String s) {
-        for(int i = 0; i<this.inventory.size();i++){
-            if(this.inventory.get(i).getName().equals(s)) {
-                this.currentRoom.addGameObject(this.inventory.get(i));
-                this.inventory.remove(i);
-            }
-        }
+        AdventureObject object = this.inventory.removeByName(s);
+        if (object != null) objectsHere(true).add(object);
     }
 
     /**
@@ -114,8 +140,8 @@ public class Player implements Serializable {
      */
     public ArrayList<String> getInventory() {
         ArrayList<String> objects = new ArrayList<>();
-        for(int i=0;i<this.inventory.size();i++){
-            objects.add(this.inventory.get(i).getName());
+        for(AdventureObject object : this.inventory){
+            objects.add(object.getName());
         }
         return objects;
     }
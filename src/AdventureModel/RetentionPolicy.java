@@ -0,0 +1,130 @@
+package AdventureModel;
+
+/**
+ * Class RetentionPolicy. Settings for which autosaves a SaveStore keeps
+ * when it compacts its directory. An autosave is kept if any rule keeps it:
+ * <ul>
+ *     <li>it is one of the last keepLast autosaves of its session, and
+ *     its session is one of the last sessions sessions;</li>
+ *     <li>it is the last autosave of its hour, within the last hourly hours;</li>
+ *     <li>it is the last autosave of its day, within the last daily days.</li>
+ * </ul>
+ * So a directory never holds more than sessions * keepLast + hourly + daily
+ * autosaves. Saves made from the save dialog are never removed.
+ */
+public class RetentionPolicy {
+
+    /**
+     * How many of the last autosaves of a session are kept.
+     */
+    private int keepLast = 10;
+
+    /**
+     * How many of the last sessions keep their last autosaves.
+     */
+    private int sessions = 5;
+
+    /**
+     * For how many hours back one autosave an hour is kept.
+     */
+    private int hourly = 24;
+
+    /**
+     * For how many days back one autosave a day is kept.
+     */
+    private int daily = 7;
+
+    /**
+     * Returns the default policy: the last 10 autosaves of each of the
+     * last 5 sessions, hourly for a day and daily for a week.
+     *
+     * @return a new default policy
+     */
+    public static RetentionPolicy defaults() {
+        return new RetentionPolicy();
+    }
+
+    /**
+     * Getter method for the keepLast attribute.
+     *
+     * @return how many of the last autosaves of a session are kept
+     */
+    public int getKeepLast() {
+        return this.keepLast;
+    }
+
+    /**
+     * Setter method for the keepLast attribute.
+     *
+     * @param keepLast how many of the last autosaves of a session to keep, at least 1
+     * @return this policy
+     */
+    public RetentionPolicy setKeepLast(int keepLast) {
+        if (keepLast < 1) throw new IllegalArgumentException("At least the last autosave has to be kept");
+        this.keepLast = keepLast;
+        return this;
+    }
+
+    /**
+     * Getter method for the sessions attribute.
+     *
+     * @return how many of the last sessions keep their last autosaves
+     */
+    public int getSessions() {
+        return this.sessions;
+    }
+
+    /**
+     * Setter method for the sessions attribute.
+     *
+     * @param sessions how many of the last sessions keep their last autosaves, at least 1
+     * @return this policy
+     */
+    public RetentionPolicy setSessions(int sessions) {
+        if (sessions < 1) throw new IllegalArgumentException("At least the current session has to be kept");
+        this.sessions = sessions;
+        return this;
+    }
+
+    /**
+     * Getter method for the hourly attribute.
+     *
+     * @return for how many hours back one autosave an hour is kept
+     */
+    public int getHourly() {
+        return this.hourly;
+    }
+
+    /**
+     * Setter method for the hourly attribute.
+     *
+     * @param hourly for how many hours back to keep one autosave an hour, or 0 for none
+     * @return this policy
+     */
+    public RetentionPolicy setHourly(int hourly) {
+        if (hourly < 0) throw new IllegalArgumentException("The hours kept cannot be negative");
+        this.hourly = hourly;
+        return this;
+    }
+
+    /**
+     * Getter method for the daily attribute.
+     *
+     * @return for how many days back one autosave a day is kept
+     */
+    public int getDaily() {
+        return this.daily;
+    }
+
+    /**
+     * Setter method for the daily attribute.
+     *
+     * @param daily for how many days back to keep one autosave a day, or 0 for none
+     * @return this policy
+     */
+    public RetentionPolicy setDaily(int daily) {
+        if (daily < 0) throw new IllegalArgumentException("The days kept cannot be negative");
+        this.daily = daily;
+        return this;
+    }
+}
@@ -1,11 +1,16 @@
 package AdventureModel;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.ArrayList;
 
 /**
  * This class contains the information about a 
  * room in the Adventure Game.
+ *
+ * A Room belongs to a World and does not change once the world is
+ * loaded. Where objects are now, and whether the room was visited,
+ * is kept by each AdventureGame session.
  */
 public class Room implements Serializable {
 
@@ -24,24 +29,36 @@ public class Room implements Serializable {
     private String roomName;
 
     /**
-     * The description of the room.
+     * The description of the room, with its lines joined by spaces.
+     * Null while the description is still only in the rooms file.
      */
     private String roomDescription;
 
     /**
-     * The passage table for the room.
+     * Where the description lives when it is loaded lazily, else null.
      */
-    private PassageTable motionTable = new PassageTable();
+    private transient DescriptionStore descriptions;
+
+    /**
+     * The byte offset of the description in the rooms file, when it is loaded lazily.
+     */
+    private transient long descriptionOffset;
 
     /**
-     * The list of objects in the room.
+     * The length in bytes of the description in the rooms file, when it is loaded lazily.
      */
-    public ArrayList<AdventureObject> objectsInRoom = new ArrayList<AdventureObject>();
+    private transient int descriptionLength;
+
+    /**
+     * The passage table for the room.
+     */
+    private PassageTable motionTable = new PassageTable();
 
     /**
-     * A boolean to store if the room has been visited or not
+     * The objects the room starts with. Frozen once the world is loaded;
+     * see AdventureGame.getObjectsInRoom for the objects in it now.
      */
-    private boolean isVisited;
+    public ObjectContainer objectsInRoom = new ObjectContainer();
 
     /**
      * AdvGameRoom Constructor.
@@ -54,26 +71,31 @@ public class Room implements Serializable {
     public Room(String roomName, int roomNumber, String roomDescription, String adventureName){
         this.roomName = roomName;
         this.roomNumber = roomNumber;
-        this.roomDescription = roomDescription;
+        this.roomDescription = roomDescription.replace("\n", " "); // once here, not on every look
         this.adventureName = adventureName;
-        this.isVisited = false;
     }
 
-
     /**
-     * Returns a comma delimited list of every
-     * object's description that is in the given room,
-     * e.g. "a can of tuna, a beagle, a lamp".
+     * AdvGameRoom Constructor, for a room whose description
+     * stays in the rooms file until it is first needed.
      *
-     * @return delimited string of object descriptions
+     * @param roomName The name of the room.
+     * @param roomNumber The number of the room.
+     * @param descriptions The mapped rooms file.
+     * @param offset The byte offset of the first description line.
+     * @param length The number of bytes up to the "-----" line.
+     * @param adventureName The name of the game.
      */
-    public String getObjectString() {
-        String objects = "";
-        for (AdventureObject obj: objectsInRoom) {objects += obj.getDescription() + ", ";}
-        if (!objects.isEmpty()) {objects = objects.substring(0, objects.length() - 2);}
-        return objects;    // return string of objects, omitting the extra comma & space that was appended to the very end
+    Room(String roomName, int roomNumber, DescriptionStore descriptions, long offset, int length, String adventureName){
+        this.roomName = roomName;
+        this.roomNumber = roomNumber;
+        this.descriptions = descriptions;
+        this.descriptionOffset = offset;
+        this.descriptionLength = length;
+        this.adventureName = adventureName;
     }
 
+
     /**
      * Returns a comma delimited list of every
      * move that is possible from the given room,
@@ -82,16 +104,11 @@ public class Room implements Serializable {
      * @return delimited string of possible moves
      */
     public String getCommands() {
-        String moves = "";
-        for (Passage p: motionTable.getDirection()) {
-            if (!moves.contains(p.getDirection())) {moves += p.getDirection() + ", ";}
-        }
-        if (!moves.isEmpty()) {moves = moves.substring(0, moves.length() - 2);}
-        return moves;     // return string of moves, omitting the extra comma & space that was appended to the very end
+        return String.join(", ", motionTable.getDirectionNames());     // each direction once, in the order of the rooms file
     }
 
     /**
-     * This method adds a game object to the room.
+     * This method adds a game object to the room, while the world is loaded.
      *
      * @param object to be added to the room.
      */
@@ -100,45 +117,26 @@ public class Room implements Serializable {
     }
 
     /**
-     * This method removes a game object from the room.
-     *
-     * @param object to be removed from the room.
-     */
-    public void removeGameObject(AdventureObject object){
-        this.objectsInRoom.remove(object);
-    }
-
-    /**
-     * This method checks if an object is in the room.
+     * This method checks if an object starts in the room. Where objects
+     * are now is up to the session; see AdventureGame.getObjectsInRoom.
      *
      * @param objectName Name of the object to be checked.
-     * @return true if the object is present in the room, false otherwise.
-     */
-    public boolean checkIfObjectInRoom(String objectName){
-        for(int i = 0; i<objectsInRoom.size();i++){
-            if(this.objectsInRoom.get(i).getName().equals(objectName)) return true;
-        }
-        return false;
-    }
-
-    /**
-     * Sets the visit status of the room to true.
+     * @return true if the object starts in the room, false otherwise.
      */
-    public void visit(){
-        isVisited = true;
+    public boolean startsWithObject(String objectName){
+        return this.objectsInRoom.containsName(objectName);
     }
 
     /**
      * Getter for returning an AdventureObject with a given name
+     * that starts in the room. Where objects are now is up to the
+     * session; see AdventureGame.getObjectsInRoom.
      *
      * @param objectName Object name to find in the room
-     * @return AdventureObject with the given name
+     * @return AdventureObject with the given name, or null if none starts here
      */
-    public AdventureObject getObject(String objectName){
-        for(int i = 0; i<objectsInRoom.size();i++){
-            if(this.objectsInRoom.get(i).getName().equals(objectName)) return this.objectsInRoom.get(i);
-        }
-        return null;
+    public AdventureObject getStartingObject(String objectName){
+        return this.objectsInRoom.get(objectName);
     }
 
     /**
@@ -156,7 +154,8 @@ public class Room implements Serializable {
      * @return description of the room
      */
     public String getRoomDescription(){
-        return this.roomDescription.replace("\n", " ");
+        if (this.roomDescription != null) return this.roomDescription;
+        return this.descriptions.get(this.roomNumber, this.descriptionOffset, this.descriptionLength);
     }
 
 
@@ -170,16 +169,6 @@ public class Room implements Serializable {
     }
 
 
-    /**
-     * Getter method for the visit attribute.
-     *
-     * @return visit status of the room
-     */
-    public boolean getVisited(){
-        return this.isVisited;
-    }
-
-
     /**
      * Getter method for the motionTable attribute.
      *
@@ -189,5 +178,23 @@ public class Room implements Serializable {
         return this.motionTable;
     }
 
+    /**
+     * Writes the room. A lazy description is written out in full,
+     * since the mapped file does not travel with the stream,
+     * but the room itself stays lazy.
+     *
+     * @param out the stream to write to
+     * @throws IOException in the case of a file I/O error.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("adventureName", this.adventureName);
+        fields.put("roomNumber", this.roomNumber);
+        fields.put("roomName", this.roomName);
+        fields.put("roomDescription", getRoomDescription());
+        fields.put("motionTable", this.motionTable);
+        fields.put("objectsInRoom", this.objectsInRoom);
+        out.writeFields();
+    }
 
 }
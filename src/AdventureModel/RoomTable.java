@@ -0,0 +1,287 @@
+package AdventureModel;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * The RoomTable class maps room numbers to the rooms of a game.
+ *
+ * Room numbers are usually small, dense integers, so rooms are kept
+ * in an array indexed by room number and looking a room up is a
+ * single array load. Numbers that would leave the array mostly empty
+ * (negative or very large ones) fall back to a HashMap.
+ *
+ * The rooms of a loaded World are shared by every session, so the
+ * World freezes its table once loading is done; after that, adding,
+ * replacing or removing a room throws UnsupportedOperationException.
+ */
+public class RoomTable extends AbstractMap<Integer, Room> implements Serializable {
+
+    /**
+     * The smallest capacity of the dense array.
+     */
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * Rooms whose number fits in the dense array, indexed by room number.
+     */
+    private Room[] dense = new Room[MIN_CAPACITY];
+
+    /**
+     * Rooms whose number does not fit in the dense array.
+     */
+    private final HashMap<Integer, Room> sparse = new HashMap<>();
+
+    /**
+     * The number of rooms in the dense array.
+     */
+    private int denseCount;
+
+    /**
+     * True once the table may no longer change.
+     */
+    private boolean frozen;
+
+    /**
+     * Stops the table from changing. Used for the rooms of a World, which sessions share.
+     */
+    void freeze() {
+        this.frozen = true;
+    }
+
+    /**
+     * Checks whether the table may still change.
+     *
+     * @return true if the table is frozen
+     */
+    public boolean isFrozen() {
+        return this.frozen;
+    }
+
+    /**
+     * Throws if the table is frozen.
+     */
+    private void checkNotFrozen() {
+        if (this.frozen) throw new UnsupportedOperationException("The rooms of a loaded world cannot change");
+    }
+
+    /**
+     * Returns the room with the given number.
+     *
+     * @param roomNumber the number of the room
+     * @return the room, or null if there is no such room
+     */
+    public Room get(int roomNumber) {
+        if (roomNumber >= 0 && roomNumber < dense.length) return dense[roomNumber];
+        return sparse.isEmpty() ? null : sparse.get(roomNumber);
+    }
+
+    /**
+     * Tells whether a room number falls in the dense array, whose length
+     * is bounded by the number of rooms, rather than in the sparse map.
+     *
+     * @param roomNumber the number of a room
+     * @return true if the number indexes the dense array
+     */
+    public boolean isDense(int roomNumber) {
+        return roomNumber >= 0 && roomNumber < dense.length;
+    }
+
+    /**
+     * Adds a room under the given number, replacing any room already there.
+     *
+     * @param roomNumber the number of the room
+     * @param room the room
+     * @return the room previously stored under that number, or null
+     */
+    public Room put(int roomNumber, Room room) {
+        checkNotFrozen();
+        Objects.requireNonNull(room);
+        if (roomNumber >= 0 && roomNumber >= dense.length && fitsDense(roomNumber)) {
+            grow(Math.max(dense.length * 2, roomNumber + 1));
+        }
+        if (roomNumber >= 0 && roomNumber < dense.length) {
+            Room previous = dense[roomNumber];
+            if (previous == null) denseCount++;
+            dense[roomNumber] = room;
+            return previous;
+        }
+        return sparse.put(roomNumber, room);
+    }
+
+    /**
+     * Shrinks the dense array to the highest room number it holds.
+     * The loader calls this once all rooms have been added.
+     */
+    public void trimToSize() {
+        checkNotFrozen();
+        int length = dense.length;
+        while (length > MIN_CAPACITY && dense[length - 1] == null) length--;
+        if (length < dense.length) dense = Arrays.copyOf(dense, length);
+    }
+
+    /**
+     * Grows the dense array, moving in any sparse rooms that now fit.
+     *
+     * @param capacity the new length of the dense array
+     */
+    private void grow(int capacity) {
+        dense = Arrays.copyOf(dense, capacity);
+        Iterator<Entry<Integer, Room>> it = sparse.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry<Integer, Room> entry = it.next();
+            if (entry.getKey() >= 0 && entry.getKey() < capacity) {
+                dense[entry.getKey()] = entry.getValue();
+                denseCount++;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Decides whether growing the dense array to hold the given number
+     * would still keep it at least a quarter full.
+     *
+     * @param roomNumber a non-negative room number past the end of the array
+     * @return true if the array should grow, false if the room should go in the sparse map
+     */
+    private boolean fitsDense(int roomNumber) {
+        return roomNumber < 4 * (size() + 1) + MIN_CAPACITY;
+    }
+
+    @Override
+    public Room get(Object key) {
+        return key instanceof Integer ? get(((Integer) key).intValue()) : null;
+    }
+
+    @Override
+    public Room put(Integer key, Room value) {
+        return put(key.intValue(), value);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Room remove(Object key) {
+        checkNotFrozen();
+        if (!(key instanceof Integer)) return null;
+        int roomNumber = (Integer) key;
+        if (roomNumber >= 0 && roomNumber < dense.length) {
+            Room previous = dense[roomNumber];
+            if (previous != null) {
+                dense[roomNumber] = null;
+                denseCount--;
+            }
+            return previous;
+        }
+        return sparse.remove(roomNumber);
+    }
+
+    @Override
+    public int size() {
+        return denseCount + sparse.size();
+    }
+
+    @Override
+    public void clear() {
+        checkNotFrozen();
+        Arrays.fill(dense, null);
+        denseCount = 0;
+        sparse.clear();
+    }
+
+    /**
+     * Returns the rooms in the table, densely numbered rooms first in
+     * ascending order, without creating a map entry per room.
+     *
+     * @return a view of the rooms
+     */
+    @Override
+    public Collection<Room> values() {
+        return new AbstractCollection<Room>() {
+            @Override
+            public Iterator<Room> iterator() {
+                return new RoomIterator<Room>() {
+                    @Override
+                    Room element(int roomNumber, Room room) {
+                        return room;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return RoomTable.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Integer, Room>> entrySet() {
+        return new AbstractSet<Entry<Integer, Room>>() {
+            @Override
+            public Iterator<Entry<Integer, Room>> iterator() {
+                return new RoomIterator<Entry<Integer, Room>>() {
+                    @Override
+                    Entry<Integer, Room> element(int roomNumber, Room room) {
+                        return new SimpleImmutableEntry<>(roomNumber, room);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return RoomTable.this.size();
+            }
+        };
+    }
+
+    /**
+     * Walks the dense array and then the sparse map.
+     *
+     * @param <E> the type of element returned for each room
+     */
+    private abstract class RoomIterator<E> implements Iterator<E> {
+
+        /**
+         * The next index in the dense array to look at.
+         */
+        private int index = 0;
+
+        /**
+         * The iterator over the sparse map, once the dense array is done.
+         */
+        private Iterator<Entry<Integer, Room>> sparseRooms;
+
+        /**
+         * Builds the element returned for a room.
+         *
+         * @param roomNumber the number of the room
+         * @param room the room
+         * @return the element
+         */
+        abstract E element(int roomNumber, Room room);
+
+        @Override
+        public boolean hasNext() {
+            while (index < dense.length && dense[index] == null) index++;
+            if (index < dense.length) return true;
+            if (sparseRooms == null) sparseRooms = sparse.entrySet().iterator();
+            return sparseRooms.hasNext();
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            if (index < dense.length) {
+                int roomNumber = index++;
+                return element(roomNumber, dense[roomNumber]);
+            }
+            Entry<Integer, Room> entry = sparseRooms.next();
+            return element(entry.getKey(), entry.getValue());
+        }
+    }
+}
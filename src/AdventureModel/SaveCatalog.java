@@ -0,0 +1,239 @@
+package AdventureModel;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class SaveCatalog. An index of the saved games in a directory, kept in
+ * the directory as catalog.idx, so a load menu can list and sort
+ * thousands of saves, and show what is in them, without opening them.
+ *
+ * The catalog holds the SaveHeader of every save. Whoever writes a save
+ * records it here. Listing only reads the names in the directory, to
+ * drop saves that were deleted and to read the headers of saves that
+ * appeared behind the catalog's back; nothing else is opened.
+ * Saves from before headers are listed with only their time.
+ *
+ * There is one catalog per directory in a JVM; use of().
+ */
+public class SaveCatalog {
+
+    /**
+     * The name of the index file.
+     */
+    public static final String FILE_NAME = "catalog.idx";
+
+    /**
+     * The first four bytes of the index, "AGSC".
+     */
+    private static final int MAGIC = 0x41475343;
+
+    /**
+     * The version of the index format. An index of any other version is rebuilt.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The catalogs in use, by canonical directory path.
+     */
+    private static final ConcurrentHashMap<String, SaveCatalog> CATALOGS = new ConcurrentHashMap<>();
+
+    /**
+     * The directory of saves.
+     */
+    private final File directory;
+
+    /**
+     * The headers of the saves, by file name. Null until the index is read.
+     */
+    private Map<String, SaveHeader> entries;
+
+    /**
+     * SaveCatalog Constructor.
+     *
+     * @param directory the directory of saves
+     */
+    private SaveCatalog(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the catalog of a directory.
+     *
+     * @param directory the directory of saves
+     * @return its catalog
+     */
+    public static SaveCatalog of(File directory) {
+        File canonical;
+        try {
+            canonical = directory.getCanonicalFile();
+        } catch (IOException e) {
+            canonical = directory.getAbsoluteFile();
+        }
+        return CATALOGS.computeIfAbsent(canonical.getPath(), path -> new SaveCatalog(directory));
+    }
+
+    /**
+     * Tells whether a file name is that of a save: a .ser file or a journal snapshot.
+     *
+     * @param name the file name
+     * @return true for a save
+     */
+    public static boolean isSaveName(String name) {
+        return name.endsWith(".ser") || name.endsWith(CommandJournal.SNAPSHOT_EXTENSION);
+    }
+
+    /**
+     * Records a save that was just written.
+     *
+     * @param saveFile the save file, in this directory
+     * @param save what was written to it, or at least its start
+     */
+    public synchronized void record(File saveFile, byte[] save) {
+        SaveHeader header = SaveCodec.readHeader(save);
+        entries().put(saveFile.getName(), header != null ? header : SaveHeader.unknown(System.currentTimeMillis()));
+        writeIndex();
+    }
+
+    /**
+     * Records a save that was just written, reading its header from the file.
+     *
+     * @param saveFile the save file, in this directory
+     */
+    public synchronized void record(File saveFile) {
+        entries().put(saveFile.getName(), headerOf(saveFile));
+        writeIndex();
+    }
+
+    /**
+     * Forgets a save, e.g. because it was deleted.
+     *
+     * @param fileName the name of the save file
+     */
+    public synchronized void forget(String fileName) {
+        forget(Collections.singletonList(fileName));
+    }
+
+    /**
+     * Forgets some saves, writing the index once.
+     *
+     * @param fileNames the names of the save files
+     */
+    public synchronized void forget(Collection<String> fileNames) {
+        if (entries().keySet().removeAll(fileNames)) writeIndex();
+    }
+
+    /**
+     * Lists the saves in the directory, newest first.
+     *
+     * @return the saves, as file name and header
+     */
+    public synchronized List<Map.Entry<String, SaveHeader>> list() {
+        Map<String, SaveHeader> entries = entries();
+        String[] names = this.directory.list();
+        Set<String> present = new HashSet<>();
+        boolean changed = false;
+        if (names != null) {
+            for (String name : names) {
+                if (!isSaveName(name)) continue;
+                present.add(name);
+                if (!entries.containsKey(name)) {
+                    entries.put(name, headerOf(new File(this.directory, name)));
+                    changed = true;
+                }
+            }
+        }
+        changed |= entries.keySet().retainAll(present);
+        if (changed) writeIndex();
+
+        List<Map.Entry<String, SaveHeader>> list = new ArrayList<>(entries.size());
+        for (Map.Entry<String, SaveHeader> entry : entries.entrySet()) list.add(new AbstractMap.SimpleImmutableEntry<>(entry));
+        list.sort(Comparator.comparingLong((Map.Entry<String, SaveHeader> entry) -> entry.getValue().getSavedAt()).reversed()
+                .thenComparing(Map.Entry::getKey));
+        return list;
+    }
+
+    /**
+     * Returns the header of a save.
+     *
+     * @param fileName the name of the save file
+     * @return its header, or null if the catalog does not know the file
+     */
+    public synchronized SaveHeader get(String fileName) {
+        return entries().get(fileName);
+    }
+
+    /**
+     * Reads the header of a save file that the catalog has not seen.
+     *
+     * @param saveFile the save file
+     * @return its header, or one with only the time for older saves
+     */
+    private static SaveHeader headerOf(File saveFile) {
+        try {
+            SaveHeader header = SaveCodec.readHeader(saveFile);
+            if (header != null) return header;
+        } catch (IOException e) {
+            // list it anyway; loading it will tell what is wrong
+        }
+        return SaveHeader.unknown(saveFile.lastModified());
+    }
+
+    /**
+     * Returns the entries, reading the index the first time.
+     *
+     * @return the headers of the saves, by file name
+     */
+    private Map<String, SaveHeader> entries() {
+        if (this.entries == null) this.entries = readIndex();
+        return this.entries;
+    }
+
+    /**
+     * Reads the index file.
+     *
+     * @return its entries, or none if it is missing or damaged
+     */
+    private Map<String, SaveHeader> readIndex() {
+        Map<String, SaveHeader> entries = new HashMap<>();
+        File index = new File(this.directory, FILE_NAME);
+        if (!index.isFile()) return entries;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(index)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return entries;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                entries.put(name, new SaveHeader(in.readUTF(), in.readInt(), in.readUTF(), in.readLong(), in.readLong()));
+            }
+        } catch (IOException e) {
+            entries.clear(); // rebuilt from the directory by list()
+        }
+        return entries;
+    }
+
+    /**
+     * Writes the index file, replacing it in one step.
+     */
+    private void writeIndex() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + this.entries.size() * 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(this.entries.size());
+            for (Map.Entry<String, SaveHeader> entry : this.entries.entrySet()) {
+                SaveHeader header = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeUTF(header.getGameName());
+                out.writeInt(header.getRoomNumber());
+                out.writeUTF(header.getRoomName());
+                out.writeLong(header.getPlayTimeMillis());
+                out.writeLong(header.getSavedAt());
+            }
+            out.flush();
+            AutoSaver.writeAtomically(new File(this.directory, FILE_NAME), bytes.toByteArray());
+        } catch (IOException e) {
+            System.err.println("Could not write the save catalog: " + e.getMessage()); // it is rebuilt on the next listing
+        }
+    }
+}
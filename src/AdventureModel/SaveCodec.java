@@ -0,0 +1,515 @@
+package AdventureModel;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Class SaveCodec. Writes and reads saved games in a small binary format
+ * of their own, in place of Java serialization.
+ *
+ * A save holds only what the player changed, as varints (7 bits a byte,
+ * low bits first). Counts and IDs are unsigned. Room numbers may be
+ * negative, so each is written as its signed (zigzag) gap from the one
+ * before, or from 0 for the first, in up to 64 bits:
+ * <ul>
+ *     <li>the magic number "AGSV" (4 bytes) and the format version;</li>
+ *     <li>a SaveHeader, of fixed size, for load menus;</li>
+ *     <li>the fingerprint of the World it was saved on (8 bytes);</li>
+ *     <li>the game directory, as its length and UTF-8 bytes;</li>
+ *     <li>the player's room;</li>
+ *     <li>the objects carried, in order;</li>
+ *     <li>the rooms whose objects changed, in increasing order, each
+ *     followed by its objects, in order;</li>
+ *     <li>the visited rooms, in increasing order.</li>
+ * </ul>
+ * An object is its ID, followed, if other objects share its name (and
+ * so its ID), by which of them it is; see World.getCopyIndex.
+ * A save of a short game is a few dozen bytes. Reading one checks the
+ * fingerprint, so a save is never put onto a world it does not fit.
+ *
+ * Versions 1 and 2 wrote room numbers as unsigned gaps and had no copy
+ * indexes; they are still read. Version 1 saves have no header.
+ * read() also takes saves from before this format (serialized
+ * AdventureGames, read by LegacySaveReader), telling the two apart by
+ * the magic number, so .ser files keep their name whichever format
+ * they are in.
+ */
+public final class SaveCodec {
+
+    /**
+     * The first four bytes of every save, "AGSV".
+     */
+    private static final int MAGIC = 0x41475356;
+
+    /**
+     * The version of the format.
+     */
+    private static final int VERSION = 3;
+
+    /**
+     * The first version with a SaveHeader; the header has not changed since.
+     */
+    private static final int FIRST_HEADER_VERSION = 2;
+
+    /**
+     * Where the header starts: after the magic number and the version, which takes one byte.
+     */
+    private static final int HEADER_OFFSET = 5;
+
+    /**
+     * No instances; everything is static.
+     */
+    private SaveCodec() {
+    }
+
+    /**
+     * Encodes a game.
+     *
+     * @param game the game to save
+     * @return the save
+     * @throws IllegalArgumentException if an object of the game is not in its world
+     */
+    public static byte[] encode(AdventureGame game) {
+        Output out = new Output();
+        out.writeInt(MAGIC);
+        out.writeVarint(VERSION);
+        ByteBuffer header = ByteBuffer.allocate(SaveHeader.SIZE);
+        SaveHeader.of(game).writeTo(header);
+        out.write(header.array(), 0, SaveHeader.SIZE);
+        out.writeLong(game.getWorld().getFingerprint());
+        byte[] name = game.getDirectoryName().getBytes(StandardCharsets.UTF_8);
+        out.writeVarint(name.length);
+        out.write(name, 0, name.length);
+        World world = game.getWorld();
+        out.writeRoomNumber(game.getPlayer().getCurrentRoom().getRoomNumber(), 0);
+        writeObjects(out, world, game.getPlayer().inventory);
+
+        Map<Integer, ObjectContainer> changed = game.getChangedRooms();
+        Integer[] numbers = changed.keySet().toArray(new Integer[0]);
+        Arrays.sort(numbers);
+        out.writeVarint(numbers.length);
+        int previous = 0;
+        for (int number : numbers) {
+            out.writeRoomNumber(number, previous);
+            previous = number;
+            writeObjects(out, world, changed.get(number));
+        }
+
+        int[] visited = game.getVisitedRoomNumbers();
+        out.writeVarint(visited.length);
+        previous = 0;
+        for (int number : visited) {
+            out.writeRoomNumber(number, previous);
+            previous = number;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a game, loading its world if needed.
+     *
+     * @param bytes the save
+     * @return the game
+     * @throws IOException if the world cannot be loaded, or the save is damaged or does not fit it
+     */
+    public static AdventureGame decode(byte[] bytes) throws IOException {
+        Input in = new Input(bytes);
+        if (in.readInt() != MAGIC) throw new InvalidObjectException("Not a saved game");
+        int version = in.readVarint();
+        if (version < 1 || version > VERSION) throw new InvalidObjectException("Save version " + version + ", expected " + VERSION);
+        long playTimeMillis = 0;
+        if (version >= FIRST_HEADER_VERSION) playTimeMillis = Math.max(0, in.readHeader().getPlayTimeMillis());
+        long fingerprint = in.readLong();
+        String directoryName = in.readString();
+
+        World world = World.load(new File(directoryName), LoadOptions.defaults());
+        if (world.getFingerprint() != fingerprint) {
+            throw new InvalidObjectException("The save does not fit " + directoryName + " as it is now");
+        }
+        AdventureGame game = new AdventureGame(world);
+        game.setPlayTimeMillis(playTimeMillis);
+        game.getPlayer().setCurrentRoom(room(world, in.readRoomNumber(0, version)));
+        readObjects(in, version, world, game.getPlayer().inventory);
+
+        int changed = in.readVarint();
+        int number = 0;
+        for (int i = 0; i < changed; i++) {
+            number = in.readRoomNumber(number, version);
+            room(world, number);
+            ObjectContainer objects = new ObjectContainer();
+            readObjects(in, version, world, objects);
+            game.getChangedRooms().put(number, objects);
+        }
+
+        int visited = in.readVarint();
+        number = 0;
+        for (int i = 0; i < visited; i++) {
+            number = in.readRoomNumber(number, version);
+            game.visit(room(world, number));
+        }
+        if (!in.atEnd()) throw new InvalidObjectException("Unexpected bytes after the save");
+        return game;
+    }
+
+    /**
+     * Reads the header of a save, or of a journal snapshot, without decoding the rest.
+     *
+     * @param bytes the save, or at least its start
+     * @return the header, or null if the save has none (it is older, or not a save)
+     */
+    public static SaveHeader readHeader(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (bytes.length >= CommandJournal.SNAPSHOT_HEADER_SIZE && in.getInt(0) == CommandJournal.MAGIC) {
+            in.position(CommandJournal.SNAPSHOT_HEADER_SIZE); // the save follows the journal's own header
+        }
+        if (in.remaining() < HEADER_OFFSET + SaveHeader.SIZE || in.getInt() != MAGIC) return null;
+        int version = in.get();
+        if (version < FIRST_HEADER_VERSION || version > VERSION) return null;
+        return SaveHeader.readFrom(in);
+    }
+
+    /**
+     * Reads the header of a save file, or of a journal snapshot,
+     * reading only the first few bytes of the file.
+     *
+     * @param file the save file
+     * @return the header, or null if the save has none (it is older, or not a save)
+     * @throws IOException in the case of a file I/O error.
+     */
+    public static SaveHeader readHeader(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return readHeader(in.readNBytes(CommandJournal.SNAPSHOT_HEADER_SIZE + HEADER_OFFSET + SaveHeader.SIZE));
+        }
+    }
+
+    /**
+     * Returns what a save holds of its game, without its header: two saves
+     * of the same state made at different times give the same bytes.
+     *
+     * @param bytes the save
+     * @return the save after its header, or all of it if it is not in this format
+     */
+    public static byte[] stateOf(byte[] bytes) {
+        if (readHeader(bytes) == null) return bytes;
+        return Arrays.copyOfRange(bytes, HEADER_OFFSET + SaveHeader.SIZE, bytes.length);
+    }
+
+    /**
+     * Tells whether some bytes are a save in this format.
+     *
+     * @param bytes the bytes, or at least their first four
+     * @return true if they start with the magic number
+     */
+    public static boolean isEncoded(byte[] bytes) {
+        return bytes.length >= 4 && new Input(bytes).readInt() == MAGIC;
+    }
+
+    /**
+     * Decodes a save in this format, or a serialized AdventureGame.
+     *
+     * @param bytes the save
+     * @return the game
+     * @throws IOException if the world cannot be loaded, or the save is damaged or does not fit it
+     */
+    public static AdventureGame decodeAny(byte[] bytes) throws IOException {
+        if (isEncoded(bytes)) return decode(bytes);
+        return LegacySaveReader.read(bytes);
+    }
+
+    /**
+     * Reads a saved game from a file, in either format.
+     *
+     * @param file the save file
+     * @return the game
+     * @throws IOException in the case of a file I/O error, or if the save is damaged or does not fit its world
+     */
+    public static AdventureGame read(File file) throws IOException {
+        return decodeAny(Files.readAllBytes(file.toPath()));
+    }
+
+    /**
+     * Writes a saved game to a file, replacing it in one step.
+     *
+     * @param game the game to save
+     * @param file the save file
+     * @throws IOException in the case of a file I/O error.
+     */
+    public static void write(AdventureGame game, File file) throws IOException {
+        AutoSaver.writeAtomically(file, encode(game));
+    }
+
+    /**
+     * Writes some objects, in order: their count, then for each its ID
+     * and, if it shares its ID, which of the objects with that ID it is.
+     *
+     * @param out where to write
+     * @param world the world the objects are in
+     * @param objects the objects
+     * @throws IllegalArgumentException if an object is not in the world
+     */
+    private static void writeObjects(Output out, World world, ObjectContainer objects) {
+        out.writeVarint(objects.size());
+        for (AdventureObject object : objects) {
+            int copy = world.getCopyIndex(object);
+            if (copy < 0) throw new IllegalArgumentException("Object " + object.getName() + " is not in " + world.getDirectoryName());
+            out.writeVarint(object.getId());
+            if (world.getCopyCount(object.getId()) > 1) out.writeVarint(copy);
+        }
+    }
+
+    /**
+     * Reads the objects written by writeObjects and adds them to a container.
+     *
+     * @param in where to read
+     * @param version the version of the save; before 3 there are no copy indexes
+     * @param world the world the objects are in
+     * @param objects the container to fill
+     * @throws IOException if the save is damaged
+     */
+    private static void readObjects(Input in, int version, World world, ObjectContainer objects) throws IOException {
+        int count = in.readVarint();
+        for (int i = 0; i < count; i++) {
+            int id = in.readVarint();
+            if (id >= world.getObjectCount() || world.getCopyCount(id) == 0) {
+                throw new InvalidObjectException("Object " + id + " is not in " + world.getDirectoryName());
+            }
+            int copy = version >= 3 && world.getCopyCount(id) > 1 ? in.readVarint() : 0;
+            if (copy >= world.getCopyCount(id)) throw new InvalidObjectException("Object " + id + " has no copy " + copy + " in " + world.getDirectoryName());
+            objects.add(world.getObject(id, copy));
+        }
+    }
+
+    /**
+     * Looks up a saved room number.
+     *
+     * @param world the world the room is in
+     * @param number the room number
+     * @return the room
+     * @throws InvalidObjectException if there is no such room
+     */
+    private static Room room(World world, int number) throws InvalidObjectException {
+        Room room = world.getRooms().get(number);
+        if (room == null) throw new InvalidObjectException("The saved room " + number + " is not in " + world.getDirectoryName());
+        return room;
+    }
+
+    /**
+     * A growing buffer of bytes to encode into.
+     */
+    private static class Output extends ByteArrayOutputStream {
+
+        /**
+         * Output Constructor.
+         */
+        Output() {
+            super(64);
+        }
+
+        /**
+         * Writes an unsigned varint.
+         *
+         * @param value the value, not negative
+         * @throws IllegalArgumentException if the value is negative
+         */
+        void writeVarint(int value) {
+            if (value < 0) throw new IllegalArgumentException("Cannot save " + value + " as a count or an ID");
+            writeVarlong(value);
+        }
+
+        /**
+         * Writes an unsigned varint of up to 64 bits.
+         *
+         * @param value the value, taken as unsigned
+         */
+        void writeVarlong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        /**
+         * Writes a room number as its signed (zigzag) gap from the room number before.
+         *
+         * @param number the room number
+         * @param previous the room number before, or 0
+         */
+        void writeRoomNumber(int number, int previous) {
+            long gap = (long) number - previous;
+            writeVarlong((gap << 1) ^ (gap >> 63));
+        }
+
+        /**
+         * Writes four bytes, big-endian.
+         *
+         * @param value the value
+         */
+        void writeInt(int value) {
+            for (int shift = 24; shift >= 0; shift -= 8) write(value >>> shift);
+        }
+
+        /**
+         * Writes eight bytes, big-endian.
+         *
+         * @param value the value
+         */
+        void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+    }
+
+    /**
+     * Bytes to decode, read from front to back.
+     */
+    private static class Input {
+
+        /**
+         * The bytes.
+         */
+        private final byte[] bytes;
+
+        /**
+         * The next byte to read.
+         */
+        private int position;
+
+        /**
+         * Input Constructor.
+         *
+         * @param bytes the bytes to decode
+         */
+        Input(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * Reads one byte.
+         *
+         * @return the byte, from 0 to 255
+         * @throws EOFException if there are no more bytes
+         */
+        private int read() throws EOFException {
+            if (this.position == this.bytes.length) throw new EOFException("The save is cut short");
+            return this.bytes[this.position++] & 0xFF;
+        }
+
+        /**
+         * Reads an unsigned varint.
+         *
+         * @return the value
+         * @throws IOException if the save is damaged
+         */
+        int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = read();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    if (value < 0) break;
+                    return value;
+                }
+            }
+            throw new InvalidObjectException("A number in the save is too large");
+        }
+
+        /**
+         * Reads an unsigned varint of up to 64 bits.
+         *
+         * @return the value
+         * @throws IOException if the save is damaged
+         */
+        long readVarlong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = read();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new InvalidObjectException("A number in the save is too large");
+        }
+
+        /**
+         * Reads a room number written by writeRoomNumber, or, before
+         * version 3, as an unsigned gap from the room number before.
+         *
+         * @param previous the room number before, or 0
+         * @param version the version of the save
+         * @return the room number
+         * @throws IOException if the save is damaged
+         */
+        int readRoomNumber(int previous, int version) throws IOException {
+            if (version < 3) return previous + readVarint();
+            long zigzag = readVarlong();
+            long gap = (zigzag >>> 1) ^ -(zigzag & 1);
+            long number = previous + gap;
+            if (gap < -0xFFFFFFFFL || gap > 0xFFFFFFFFL || number != (int) number) {
+                throw new InvalidObjectException("A room number in the save is too large");
+            }
+            return (int) number;
+        }
+
+        /**
+         * Reads four bytes, big-endian. Reads nothing and returns 0 if there are fewer left.
+         *
+         * @return the value
+         */
+        int readInt() {
+            if (this.bytes.length - this.position < 4) return 0;
+            int value = 0;
+            for (int i = 0; i < 4; i++) value = (value << 8) | (this.bytes[this.position++] & 0xFF);
+            return value;
+        }
+
+        /**
+         * Reads eight bytes, big-endian.
+         *
+         * @return the value
+         * @throws EOFException if there are fewer left
+         */
+        long readLong() throws EOFException {
+            if (this.bytes.length - this.position < 8) throw new EOFException("The save is cut short");
+            return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+        }
+
+        /**
+         * Reads a SaveHeader.
+         *
+         * @return the header
+         * @throws EOFException if there are fewer bytes left than a header takes
+         */
+        SaveHeader readHeader() throws EOFException {
+            if (this.bytes.length - this.position < SaveHeader.SIZE) throw new EOFException("The save is cut short");
+            SaveHeader header = SaveHeader.readFrom(ByteBuffer.wrap(this.bytes, this.position, SaveHeader.SIZE));
+            this.position += SaveHeader.SIZE;
+            return header;
+        }
+
+        /**
+         * Reads a string written as its length and UTF-8 bytes.
+         *
+         * @return the string
+         * @throws IOException if the save is damaged
+         */
+        String readString() throws IOException {
+            int length = readVarint();
+            if (length > this.bytes.length - this.position) throw new EOFException("The save is cut short");
+            String string = new String(this.bytes, this.position, length, StandardCharsets.UTF_8);
+            this.position += length;
+            return string;
+        }
+
+        /**
+         * Tells whether every byte has been read.
+         *
+         * @return true if there are no more bytes
+         */
+        boolean atEnd() {
+            return this.position == this.bytes.length;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package AdventureModel;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Class SaveHeader. What a load menu shows about a saved game: the game,
+ * the room the player is in, how long they have played and when the
+ * game was saved.
+ *
+ * Every save starts with one (see SaveCodec), always SIZE bytes long, so
+ * it can be read without reading, let alone decoding, the rest. Names
+ * that do not fit are cut short.
+ */
+public class SaveHeader {
+
+    /**
+     * The bytes kept of the game name.
+     */
+    private static final int GAME_NAME_BYTES = 32;
+
+    /**
+     * The bytes kept of the room name.
+     */
+    private static final int ROOM_NAME_BYTES = 64;
+
+    /**
+     * The size of a header: when saved, play time, room number, game name and room name.
+     */
+    public static final int SIZE = 8 + 8 + 4 + GAME_NAME_BYTES + ROOM_NAME_BYTES;
+
+    /**
+     * The name of the game, e.g. TinyGame.
+     */
+    private final String gameName;
+
+    /**
+     * The number of the room the player is in, or 0 if not known.
+     */
+    private final int roomNumber;
+
+    /**
+     * The name of the room the player is in.
+     */
+    private final String roomName;
+
+    /**
+     * How long the game has been played, in milliseconds, or -1 if not known.
+     */
+    private final long playTimeMillis;
+
+    /**
+     * When the game was saved, in milliseconds since 1970.
+     */
+    private final long savedAt;
+
+    /**
+     * SaveHeader Constructor.
+     *
+     * @param gameName the name of the game
+     * @param roomNumber the number of the player's room, or 0 if not known
+     * @param roomName the name of the player's room
+     * @param playTimeMillis how long the game has been played, or -1 if not known
+     * @param savedAt when the game was saved
+     */
+    public SaveHeader(String gameName, int roomNumber, String roomName, long playTimeMillis, long savedAt) {
+        this.gameName = gameName;
+        this.roomNumber = roomNumber;
+        this.roomName = roomName;
+        this.playTimeMillis = playTimeMillis;
+        this.savedAt = savedAt;
+    }
+
+    /**
+     * Describes a game as it is now.
+     *
+     * @param game the game being saved
+     * @return its header
+     */
+    static SaveHeader of(AdventureGame game) {
+        String directory = game.getDirectoryName();
+        Room room = game.getPlayer().getCurrentRoom();
+        return new SaveHeader(directory.substring(directory.lastIndexOf('/') + 1), room.getRoomNumber(),
+                room.getRoomName(), game.getPlayTimeMillis(), System.currentTimeMillis());
+    }
+
+    /**
+     * Describes a save from before headers, of which only the time is known.
+     *
+     * @param savedAt when the file was last changed
+     * @return a header with nothing else in it
+     */
+    static SaveHeader unknown(long savedAt) {
+        return new SaveHeader("", 0, "", -1, savedAt);
+    }
+
+    /**
+     * Writes the header, SIZE bytes.
+     *
+     * @param out where to write
+     */
+    void writeTo(ByteBuffer out) {
+        out.putLong(this.savedAt);
+        out.putLong(this.playTimeMillis);
+        out.putInt(this.roomNumber);
+        putString(out, this.gameName, GAME_NAME_BYTES);
+        putString(out, this.roomName, ROOM_NAME_BYTES);
+    }
+
+    /**
+     * Reads a header written by writeTo.
+     *
+     * @param in where to read, with at least SIZE bytes left
+     * @return the header
+     */
+    static SaveHeader readFrom(ByteBuffer in) {
+        long savedAt = in.getLong();
+        long playTimeMillis = in.getLong();
+        int roomNumber = in.getInt();
+        String gameName = getString(in, GAME_NAME_BYTES);
+        String roomName = getString(in, ROOM_NAME_BYTES);
+        return new SaveHeader(gameName, roomNumber, roomName, playTimeMillis, savedAt);
+    }
+
+    /**
+     * Writes a string into a field of fixed size, cut short at a whole
+     * character if too long, and padded with zeros if too short.
+     *
+     * @param out where to write
+     * @param string the string
+     * @param size the size of the field
+     */
+    private static void putString(ByteBuffer out, String string, int size) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, size);
+        while (length < bytes.length && length > 0 && (bytes[length] & 0xC0) == 0x80) length--; // not in the middle of a character
+        out.put(bytes, 0, length);
+        for (int i = length; i < size; i++) out.put((byte) 0);
+    }
+
+    /**
+     * Reads a string written by putString.
+     *
+     * @param in where to read
+     * @param size the size of the field
+     * @return the string
+     */
+    private static String getString(ByteBuffer in, int size) {
+        byte[] bytes = new byte[size];
+        in.get(bytes);
+        int length = 0;
+        while (length < size && bytes[length] != 0) length++;
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Getter method for the gameName attribute.
+     *
+     * @return the name of the game, or "" if not known
+     */
+    public String getGameName() {
+        return this.gameName;
+    }
+
+    /**
+     * Getter method for the roomNumber attribute.
+     *
+     * @return the number of the player's room, or 0 if not known
+     */
+    public int getRoomNumber() {
+        return this.roomNumber;
+    }
+
+    /**
+     * Getter method for the roomName attribute.
+     *
+     * @return the name of the player's room, or "" if not known
+     */
+    public String getRoomName() {
+        return this.roomName;
+    }
+
+    /**
+     * Getter method for the playTimeMillis attribute.
+     *
+     * @return how long the game has been played, in milliseconds, or -1 if not known
+     */
+    public long getPlayTimeMillis() {
+        return this.playTimeMillis;
+    }
+
+    /**
+     * Getter method for the savedAt attribute.
+     *
+     * @return when the game was saved, in milliseconds since 1970
+     */
+    public long getSavedAt() {
+        return this.savedAt;
+    }
+
+    /**
+     * Tells whether more than the time is known, i.e. the save has a header.
+     *
+     * @return true if the game and room are known
+     */
+    public boolean isKnown() {
+        return this.roomNumber != 0;
+    }
+}
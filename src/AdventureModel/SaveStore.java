@@ -0,0 +1,215 @@
+package AdventureModel;
+
+import java.io.Closeable;
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Class SaveStore. Looks after the autosaves of one session of play in
+ * a directory of saves, so the directory does not grow without bound.
+ *
+ * Autosaves are named autosave-SESSION-TIME.ser, where SESSION is when
+ * the session started, so a store can tell its sessions apart. They are
+ * written through an AutoSaver and recorded in the SaveCatalog. A save
+ * whose state is the same as the session's last one (the header aside)
+ * is not written at all. Every so many autosaves, and when the store
+ * opens and closes, the directory is compacted in the background:
+ * autosaves that the RetentionPolicy does not keep are deleted.
+ * Other saves, such as those from the save dialog, are never touched.
+ */
+public class SaveStore implements Closeable {
+
+    /**
+     * How autosave names start.
+     */
+    public static final String AUTOSAVE_PREFIX = "autosave-";
+
+    /**
+     * The format of the times in autosave names.
+     */
+    private static final String TIME_FORMAT = "yyyy.MM.dd.HH.mm.ss";
+
+    /**
+     * Autosaves between compactions.
+     */
+    private static final int COMPACT_EVERY = 20;
+
+    /**
+     * The directory of saves.
+     */
+    private final File directory;
+
+    /**
+     * Which autosaves are kept.
+     */
+    private final RetentionPolicy policy;
+
+    /**
+     * The index of the saves in the directory.
+     */
+    private final SaveCatalog catalog;
+
+    /**
+     * Writes the autosaves.
+     */
+    private final AutoSaver autoSaver;
+
+    /**
+     * Runs compactions, one at a time.
+     */
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "save-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Whether a compaction is waiting to run.
+     */
+    private final AtomicBoolean compactionPending = new AtomicBoolean();
+
+    /**
+     * When this session started, as it appears in autosave names.
+     */
+    private final String session;
+
+    /**
+     * The state of the last autosave, without its header.
+     */
+    private byte[] lastState;
+
+    /**
+     * Autosaves since the last compaction.
+     */
+    private int sinceCompaction;
+
+    /**
+     * SaveStore Constructor. Starts a session, and compacts the directory in the background.
+     *
+     * @param directory the directory of saves
+     * @param policy which autosaves to keep
+     */
+    public SaveStore(File directory, RetentionPolicy policy) {
+        this.directory = directory;
+        this.policy = policy;
+        this.catalog = SaveCatalog.of(directory);
+        this.autoSaver = new AutoSaver(AutoSaver.DEFAULT_DELAY_MILLIS, this.catalog);
+        this.session = new SimpleDateFormat(TIME_FORMAT).format(new Date());
+        compactInBackground();
+    }
+
+    /**
+     * Autosaves a game, unless nothing changed since the last autosave.
+     * The state is taken now; it is written in the background.
+     *
+     * @param game the game to save
+     */
+    public void autosave(AdventureGame game) {
+        byte[] save = game.snapshot();
+        byte[] state = SaveCodec.stateOf(save);
+        synchronized (this) {
+            if (Arrays.equals(state, this.lastState)) return; // the last autosave has this already
+            this.lastState = state;
+            if (++this.sinceCompaction >= COMPACT_EVERY) {
+                this.sinceCompaction = 0;
+                compactInBackground();
+            }
+        }
+        String time = new SimpleDateFormat(TIME_FORMAT).format(new Date());
+        this.autoSaver.save(new File(this.directory, AUTOSAVE_PREFIX + this.session + "-" + time + ".ser"), save);
+    }
+
+    /**
+     * Compacts the directory on the compaction thread, unless a compaction is already waiting.
+     */
+    public void compactInBackground() {
+        if (!this.compactionPending.compareAndSet(false, true)) return;
+        this.compactor.execute(() -> {
+            this.compactionPending.set(false);
+            compact();
+        });
+    }
+
+    /**
+     * Deletes the autosaves that the policy does not keep.
+     *
+     * @return the names of the autosaves deleted
+     */
+    public List<String> compact() {
+        long now = System.currentTimeMillis();
+        long hourlySince = now - this.policy.getHourly() * 3_600_000L;
+        LocalDate dailySince = LocalDate.now().minusDays(this.policy.getDaily());
+        ZoneId zone = ZoneId.systemDefault();
+
+        Map<String, Integer> keptOfSession = new HashMap<>();
+        Set<Long> hoursKept = new HashSet<>();
+        Set<LocalDate> daysKept = new HashSet<>();
+        List<String> deleted = new ArrayList<>();
+        for (Map.Entry<String, SaveHeader> save : this.catalog.list()) { // newest first
+            String name = save.getKey();
+            String session = sessionOf(name);
+            if (session == null) continue; // not an autosave
+            long savedAt = save.getValue().getSavedAt();
+
+            boolean keep = false;
+            Integer kept = keptOfSession.get(session);
+            if (kept == null && keptOfSession.size() < this.policy.getSessions()) kept = 0; // one of the last sessions
+            if (kept != null && kept < this.policy.getKeepLast()) {
+                keptOfSession.put(session, kept + 1);
+                keep = true;
+            }
+            if (savedAt > hourlySince && hoursKept.add(savedAt / 3_600_000L)) keep = true;
+            LocalDate day = Instant.ofEpochMilli(savedAt).atZone(zone).toLocalDate();
+            if (day.isAfter(dailySince) && daysKept.add(day)) keep = true;
+
+            if (!keep && (new File(this.directory, name).delete() || !new File(this.directory, name).exists())) deleted.add(name);
+        }
+        this.catalog.forget(deleted);
+        return deleted;
+    }
+
+    /**
+     * Returns the session of an autosave.
+     *
+     * @param fileName the name of a save file
+     * @return the session, or null if it is not an autosave
+     */
+    static String sessionOf(String fileName) {
+        int sessionEnd = AUTOSAVE_PREFIX.length() + TIME_FORMAT.length();
+        if (!fileName.startsWith(AUTOSAVE_PREFIX) || !fileName.endsWith(".ser") || fileName.length() <= sessionEnd) return null;
+        return fileName.substring(AUTOSAVE_PREFIX.length(), sessionEnd);
+    }
+
+    /**
+     * Getter method for the catalog attribute.
+     *
+     * @return the index of the saves in the directory
+     */
+    public SaveCatalog getCatalog() {
+        return this.catalog;
+    }
+
+    /**
+     * Writes any autosave that is waiting, compacts the directory once more, and stops.
+     */
+    @Override
+    public void close() {
+        this.autoSaver.close();
+        if (this.compactor.isShutdown()) return;
+        compactInBackground();
+        this.compactor.shutdown();
+        try {
+            this.compactor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
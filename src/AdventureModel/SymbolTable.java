@@ -0,0 +1,77 @@
+package AdventureModel;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * The SymbolTable class gives every direction, verb and object name
+ * of a game a small integer symbol.
+ *
+ * AdventureLoader fills the table while parsing, so passages, tokens
+ * and objects can compare symbols instead of Strings, and each name
+ * is stored once however many rooms mention it.
+ *
+ * A World and its symbols are shared by every session playing it.
+ * Sessions only read the table once the World is loaded; the verbs a
+ * session adds get symbols of its own tokenizer (see
+ * CommandTokenizer.addLocalWord). The methods are synchronized all the
+ * same, so the table is safely seen by the sessions' threads.
+ */
+public class SymbolTable implements Serializable {
+
+    /**
+     * The symbol of each name.
+     */
+    private final HashMap<String, Integer> symbols = new HashMap<>();
+
+    /**
+     * The name of each symbol, indexed by symbol.
+     */
+    private final ArrayList<String> names = new ArrayList<>();
+
+    /**
+     * Returns the symbol of a name, adding the name if it is new.
+     *
+     * @param name the name
+     * @return the symbol of the name
+     */
+    public synchronized int intern(String name) {
+        Integer symbol = this.symbols.get(name);
+        if (symbol != null) return symbol;
+        this.names.add(name);
+        this.symbols.put(name, this.names.size() - 1);
+        return this.names.size() - 1;
+    }
+
+    /**
+     * Returns the symbol of a name.
+     *
+     * @param name the name
+     * @return the symbol of the name, or -1 if the name is not in the table
+     */
+    public synchronized int lookup(String name) {
+        Integer symbol = this.symbols.get(name);
+        return symbol == null ? -1 : symbol;
+    }
+
+    /**
+     * Returns the name of a symbol. Every symbol has exactly one
+     * name instance, so names can be shared between rooms.
+     *
+     * @param symbol the symbol
+     * @return the name of the symbol
+     */
+    public synchronized String name(int symbol) {
+        return this.names.get(symbol);
+    }
+
+    /**
+     * Returns the number of symbols in the table.
+     *
+     * @return the number of symbols
+     */
+    public synchronized int size() {
+        return this.names.size();
+    }
+}
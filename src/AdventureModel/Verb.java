@@ -0,0 +1,18 @@
+package AdventureModel;
+
+/**
+ * Verb interface. A handler for one action verb of the game,
+ * such as TAKE or LOOK. Motion verbs are not Verbs; they come
+ * from the passage table of the current room.
+ */
+public interface Verb {
+
+    /**
+     * Carries out the verb.
+     *
+     * @param game the game being played
+     * @param command the words of the command; the first word is the verb
+     * @return the outcome of the command
+     */
+    CommandResult execute(AdventureGame game, CommandTokenizer.Tokens command);
+}
@@ -0,0 +1,185 @@
+package AdventureModel;
+
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * Class VerbRegistry. Maps each action verb of the game to the Verb
+ * that handles it, so that dispatching a command is a single lookup.
+ *
+ * The standard registry holds the verbs that exist in all games, with
+ * the one-letter forms (L, H, C, I, O) that work whatever synonyms.txt says.
+ * New verbs can be added with register without touching dispatch.
+ */
+public class VerbRegistry {
+
+    /**
+     * The handlers, keyed by verb.
+     */
+    private final HashMap<String, Verb> verbs = new HashMap<>();
+
+    /**
+     * Creates a registry holding the verbs that exist in all games.
+     *
+     * @return a new registry with the standard verbs
+     */
+    public static VerbRegistry standard() {
+        VerbRegistry registry = new VerbRegistry();
+        registry.register("QUIT", (game, command) -> CommandResult.GAME_OVER); //time to stop!
+        registry.register("TAKE", VerbRegistry::take);
+        registry.register("DROP", VerbRegistry::drop);
+        registry.register("LOOK", VerbRegistry::look);
+        registry.register("L", VerbRegistry::look);
+        registry.register("HELP", VerbRegistry::help);
+        registry.register("H", VerbRegistry::help);
+        registry.register("COMMANDS", VerbRegistry::commands);
+        registry.register("C", VerbRegistry::commands);
+        registry.register("INVENTORY", VerbRegistry::inventory);
+        registry.register("I", VerbRegistry::inventory);
+        registry.register("OBJECTS", VerbRegistry::objects);
+        registry.register("O", VerbRegistry::objects);
+        return registry;
+    }
+
+    /**
+     * Adds a verb, replacing any earlier handler for it.
+     *
+     * @param verb the verb, in upper case
+     * @param handler the handler for the verb
+     */
+    public void register(String verb, Verb handler) {
+        this.verbs.put(verb, handler);
+    }
+
+    /**
+     * Returns the handler for a verb.
+     *
+     * @param verb the verb
+     * @return the handler, or null if the verb is unknown
+     */
+    public Verb get(String verb) {
+        return this.verbs.get(verb);
+    }
+
+    /**
+     * Returns every registered verb.
+     *
+     * @return the verbs
+     */
+    public Set<String> words() {
+        return this.verbs.keySet();
+    }
+
+    /**
+     * TAKE: move an object from the current room to the inventory.
+     *
+     * @param game the game being played
+     * @param command the words of the command
+     * @return the outcome of the command
+     */
+    private static CommandResult take(AdventureGame game, CommandTokenizer.Tokens command) {
+        if (command.size() < 2) return new CommandResult(CommandResult.Type.MESSAGE, "THE TAKE COMMAND REQUIRES AN OBJECT");
+        if (command.size() > 2) return CommandResult.INVALID;
+        String objectName = command.get(1);
+        if (game.getPlayer().takeObject(objectName)) return new CommandResult(CommandResult.Type.MESSAGE, "YOU HAVE TAKEN:\n " + objectName);
+        return new CommandResult(CommandResult.Type.MESSAGE, "THIS OBJECT IS NOT HERE:\n " + objectName);
+    }
+
+    /**
+     * DROP: move an object from the inventory to the current room.
+     *
+     * @param game the game being played
+     * @param command the words of the command
+     * @return the outcome of the command
+     */
+    private static CommandResult drop(AdventureGame game, CommandTokenizer.Tokens command) {
+        if (command.size() < 2) return new CommandResult(CommandResult.Type.MESSAGE, "THE DROP COMMAND REQUIRES AN OBJECT");
+        if (command.size() > 2) return CommandResult.INVALID;
+        String objectName = command.get(1);
+        if (game.getPlayer().checkIfObjectInInventory(objectName)) {
+            game.getPlayer().dropObject(objectName);
+            return new CommandResult(CommandResult.Type.MESSAGE, "YOU HAVE DROPPED:\n " + objectName);
+        }
+        return new CommandResult(CommandResult.Type.MESSAGE, "THIS OBJECT IS NOT IN YOUR INVENTORY:\n " + objectName);
+    }
+
+    /**
+     * LOOK: describe the current room and the objects in it.
+     *
+     * @param game the game being played
+     * @param command the words of the command
+     * @return the outcome of the command
+     */
+    private static CommandResult look(AdventureGame game, CommandTokenizer.Tokens command) {
+        if (command.size() > 1) return CommandResult.INVALID;
+        Room room = game.getPlayer().getCurrentRoom();
+        String roomDesc = room.getRoomDescription();
+        String objectString = game.getObjectString(room);
+        if (!objectString.isEmpty()) roomDesc += "\n\nObjects in this room:\n" + objectString;
+        return new CommandResult(CommandResult.Type.LOOK, roomDesc);
+    }
+
+    /**
+     * HELP: show the help text.
+     *
+     * @param game the game being played
+     * @param command the words of the command
+     * @return the outcome of the command
+     */
+    private static CommandResult help(AdventureGame game, CommandTokenizer.Tokens command) {
+        if (command.size() > 1) return CommandResult.INVALID;
+        return new CommandResult(CommandResult.Type.HELP, game.getInstructions());
+    }
+
+    /**
+     * COMMANDS: list the moves that are possible from the current room.
+     *
+     * @param game the game being played
+     * @param command the words of the command
+     * @return the outcome of the command
+     */
+    private static CommandResult commands(AdventureGame game, CommandTokenizer.Tokens command) {
+        if (command.size() > 1) return CommandResult.INVALID;
+        return new CommandResult(CommandResult.Type.COMMANDS,
+                "You can move in the following directions:\n" + game.getPlayer().getCurrentRoom().getCommands());
+    }
+
+    /**
+     * INVENTORY: list the objects the player is carrying.
+     *
+     * @param game the game being played
+     * @param command the words of the command
+     * @return the outcome of the command
+     */
+    private static CommandResult inventory(AdventureGame game, CommandTokenizer.Tokens command) {
+        if (command.size() > 1) return CommandResult.INVALID;
+        return new CommandResult(CommandResult.Type.INVENTORY, names(game.getPlayer().inventory));
+    }
+
+    /**
+     * OBJECTS: list the objects in the current room.
+     *
+     * @param game the game being played
+     * @param command the words of the command
+     * @return the outcome of the command
+     */
+    private static CommandResult objects(AdventureGame game, CommandTokenizer.Tokens command) {
+        if (command.size() > 1) return CommandResult.INVALID;
+        return new CommandResult(CommandResult.Type.OBJECTS, names(game.getObjectsInRoom(game.getPlayer().getCurrentRoom())));
+    }
+
+    /**
+     * Joins the names of some objects with commas.
+     *
+     * @param objects the objects
+     * @return the comma delimited names
+     */
+    private static String names(ObjectContainer objects) {
+        StringBuilder names = new StringBuilder();
+        for (AdventureObject obj : objects) {
+            if (names.length() > 0) names.append(", ");
+            names.append(obj.getName());
+        }
+        return names.toString();
+    }
+}
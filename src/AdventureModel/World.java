@@ -0,0 +1,381 @@
+package AdventureModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class World. The part of a game that never changes while it is played:
+ * rooms, passages, descriptions, objects and where they start, synonyms
+ * and help text.
+ *
+ * A World is filled in once by AdventureLoader (or WorldPack) and then
+ * only read, so any number of AdventureGame sessions can share one.
+ * Everything a player changes (where objects are, which rooms were
+ * visited, the player's room and inventory) is kept by the session.
+ * To make sure of that, the object containers of the rooms are frozen
+ * once the world is loaded.
+ *
+ * load() keeps one World per game directory and hands the same one to
+ * every session, reloading it if the game files change on disk.
+ */
+public final class World {
+
+    /**
+     * The worlds loaded so far, by canonical directory path.
+     */
+    private static final ConcurrentHashMap<String, World> LOADED = new ConcurrentHashMap<>();
+
+    /**
+     * The files a world is loaded from, to notice when they change.
+     */
+    private static final String[] SOURCES = {"rooms.txt", "objects.txt", "synonyms.txt", "help.txt", WorldPack.FILE_NAME};
+
+    /**
+     * The directory the game files live in, with '/' separators.
+     */
+    private final String directoryName;
+
+    /**
+     * A table of all the rooms in the game, by room number.
+     */
+    private final RoomTable rooms = new RoomTable();
+
+    /**
+     * Synonyms of commands, from synonym to command.
+     */
+    private final HashMap<String, String> synonyms = new HashMap<>();
+
+    /**
+     * The symbols of every direction, verb and object name in the game.
+     */
+    private final SymbolTable symbols = new SymbolTable();
+
+    /**
+     * Object names and their dense integer IDs.
+     */
+    private final HashMap<String, Integer> objectIds = new HashMap<>();
+
+    /**
+     * The objects of the game, by ID. Objects with the same name share an
+     * ID, so each ID has one or more copies, in increasing order of the
+     * room they start in.
+     */
+    private AdventureObject[][] objects;
+
+    /**
+     * The Help text of the game.
+     */
+    private String helpText;
+
+    /**
+     * A tokenizer that knows every word of the game, for sessions to copy.
+     */
+    private final CommandTokenizer tokenizer;
+
+    /**
+     * A hash of the rooms, passages and objects, which saves are checked against.
+     */
+    private final long fingerprint;
+
+    /**
+     * When the game files were last changed, as of loading.
+     */
+    private final long lastModified;
+
+    /**
+     * World Constructor
+     * __________________________
+     * Loads a world from its directory.
+     *
+     * @param directory the directory in which game files live
+     * @param options how the game files are loaded
+     * @throws IOException in the case of a file I/O error
+     */
+    private World(File directory, LoadOptions options) throws IOException {
+        this.directoryName = directory.getPath().replace(File.separatorChar, '/');
+        this.lastModified = lastModified(directory);
+        new AdventureLoader(this, this.directoryName, options).loadGame();
+
+        // the standard verbs get their symbols now, so that sessions never have to add them
+        for (String verb : VerbRegistry.standard().words()) this.symbols.intern(verb);
+
+        Integer[] numbers = this.rooms.keySet().toArray(new Integer[0]);
+        Arrays.sort(numbers); // so that copies are numbered the same however the rooms were loaded
+        int[] copies = new int[this.objectIds.size()];
+        for (int number : numbers) {
+            for (AdventureObject object : this.rooms.get(number).objectsInRoom) copies[object.getId()]++;
+        }
+        this.objects = new AdventureObject[copies.length][];
+        for (int id = 0; id < copies.length; id++) this.objects[id] = new AdventureObject[copies[id]];
+        Arrays.fill(copies, 0);
+        for (int number : numbers) {
+            Room room = this.rooms.get(number);
+            for (AdventureObject object : room.objectsInRoom) this.objects[object.getId()][copies[object.getId()]++] = object;
+            room.objectsInRoom.freeze();
+        }
+        this.rooms.freeze();
+        this.tokenizer = new CommandTokenizer(this.symbols, this.synonyms);
+        this.fingerprint = computeFingerprint();
+    }
+
+    /**
+     * Hashes what a saved game depends on: the numbers and names of the
+     * rooms, their passages, and the names, IDs and starting rooms of the
+     * objects. Descriptions, synonyms and help text are left out, so that
+     * rewording a game does not break its saves. Rooms are hashed one by
+     * one and summed, so the order they were loaded in does not matter.
+     *
+     * @return the fingerprint
+     */
+    private long computeFingerprint() {
+        long sum = mix(this.rooms.size());
+        for (Room room : this.rooms.values()) {
+            long hash = room.getRoomNumber() * 31L + room.getRoomName().hashCode();
+            for (Passage passage : room.getMotionTable().getDirection()) {
+                hash = hash * 31 + passage.getDirection().hashCode();
+                hash = hash * 31 + passage.getDestinationRoom();
+                hash = hash * 31 + (passage.getIsBlocked() ? passage.getKeyName().hashCode() : 0);
+            }
+            for (AdventureObject object : room.objectsInRoom) {
+                hash = hash * 31 + object.getId();
+                hash = hash * 31 + object.getName().hashCode();
+            }
+            sum += mix(hash);
+        }
+        return mix(sum);
+    }
+
+    /**
+     * Scrambles the bits of a hash (the finalizer of SplitMix64).
+     *
+     * @param z the hash
+     * @return the scrambled hash
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns the shared world of a game directory, loading it if it is
+     * not loaded yet or if its files changed since.
+     *
+     * @param directory the directory in which game files live
+     * @param options how the game files are loaded, if they are loaded now
+     * @return the world
+     * @throws IOException in the case of a file I/O error
+     */
+    public static World load(File directory, LoadOptions options) throws IOException {
+        String key = directory.getCanonicalPath();
+        try {
+            return LOADED.compute(key, (k, loaded) -> {
+                if (loaded != null && loaded.lastModified == lastModified(directory)) return loaded;
+                try {
+                    return new World(directory, options);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Loads a world without sharing it, e.g. to measure loading.
+     *
+     * @param directory the directory in which game files live
+     * @param options how the game files are loaded
+     * @return a new world
+     * @throws IOException in the case of a file I/O error
+     */
+    public static World read(File directory, LoadOptions options) throws IOException {
+        return new World(directory, options);
+    }
+
+    /**
+     * Forgets every shared world, so the next load() reads the files again.
+     */
+    public static void clearLoaded() {
+        LOADED.clear();
+    }
+
+    /**
+     * Returns when the game files in a directory last changed.
+     *
+     * @param directory the game directory
+     * @return the latest modification time of the game files
+     */
+    private static long lastModified(File directory) {
+        long latest = 0;
+        for (String source : SOURCES) latest = Math.max(latest, new File(directory, source).lastModified());
+        return latest;
+    }
+
+    /**
+     * Getter method for the fingerprint, a hash of the rooms, passages and
+     * objects. A saved game only fits a world with the same fingerprint.
+     * @return fingerprint
+     */
+    public long getFingerprint() {
+        return this.fingerprint;
+    }
+
+    /**
+     * Getter method for directory
+     * @return directoryName
+     */
+    public String getDirectoryName() {
+        return this.directoryName;
+    }
+
+    /**
+     * Getter method for the Help text.
+     * @return helpText
+     */
+    public String getHelpText() {
+        return this.helpText;
+    }
+
+    /**
+     * Setter method for helpText, while loading.
+     * @param help which is text to set
+     */
+    void setHelpText(String help) {
+        this.helpText = help;
+    }
+
+    /**
+     * Getter method for rooms
+     * @return table of the rooms by number
+     */
+    public RoomTable getRooms() {
+        return this.rooms;
+    }
+
+    /**
+     * Getter method for the room a new game starts in.
+     * @return room 1
+     */
+    public Room getStartRoom() {
+        return this.rooms.get(1);
+    }
+
+    /**
+     * Getter method for synonyms
+     * @return map of key value pairs (synonym to command), read only
+     */
+    public Map<String, String> getSynonyms() {
+        return Collections.unmodifiableMap(this.synonyms);
+    }
+
+    /**
+     * Getter method for synonyms, while loading.
+     * @return map of key value pairs (synonym to command)
+     */
+    HashMap<String, String> getSynonymTable() {
+        return this.synonyms;
+    }
+
+    /**
+     * Getter method for the symbol table. Symbols are only added
+     * while loading, or when a session registers a new verb.
+     * @return the symbols of every direction, verb and object name in the game
+     */
+    public SymbolTable getSymbols() {
+        return this.symbols;
+    }
+
+    /**
+     * Returns a tokenizer for a session. It shares its tables with
+     * the world's until the session adds a word of its own.
+     *
+     * @return a new tokenizer that knows every word of the game
+     */
+    CommandTokenizer newTokenizer() {
+        return this.tokenizer.copy();
+    }
+
+    /**
+     * Returns the ID of the object with the given name.
+     *
+     * @param objectName the name of the object
+     * @return the ID of the object, or -1 if there is no such object
+     */
+    public int getObjectId(String objectName) {
+        Integer id = this.objectIds.get(objectName);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the ID of the object with the given name,
+     * assigning the next free ID if the name is new.
+     * Only used while loading.
+     *
+     * @param objectName the name of the object
+     * @return the ID of the object
+     */
+    int assignObjectId(String objectName) {
+        return this.objectIds.computeIfAbsent(objectName, name -> this.objectIds.size());
+    }
+
+    /**
+     * Returns the object with the given ID; if several objects share
+     * its name, the one starting in the lowest numbered room.
+     *
+     * @param id the ID of the object
+     * @return the object, or null if none is placed in a room
+     */
+    public AdventureObject getObject(int id) {
+        return this.objects[id].length == 0 ? null : this.objects[id][0];
+    }
+
+    /**
+     * Returns one of the objects with the given ID.
+     *
+     * @param id the ID of the object
+     * @param copy which of the objects with that ID, from 0
+     * @return the object
+     */
+    public AdventureObject getObject(int id, int copy) {
+        return this.objects[id][copy];
+    }
+
+    /**
+     * Returns how many objects share an ID, which is how many share its name.
+     *
+     * @param id the ID of the object
+     * @return the number of objects with that ID
+     */
+    public int getCopyCount(int id) {
+        return this.objects[id].length;
+    }
+
+    /**
+     * Tells which of the objects with its ID an object is.
+     *
+     * @param object an object of this world
+     * @return which of the objects with its ID it is, from 0, or -1 if it is not in this world
+     */
+    public int getCopyIndex(AdventureObject object) {
+        int id = object.getId();
+        if (id < 0 || id >= this.objects.length) return -1;
+        for (int copy = 0; copy < this.objects[id].length; copy++) {
+            if (this.objects[id][copy] == object) return copy;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of objects in the game.
+     *
+     * @return the number of objects, which is one more than the highest ID
+     */
+    public int getObjectCount() {
+        return this.objects.length;
+    }
+}
@@ -0,0 +1,51 @@
+package AdventureModel;
+
+import java.io.IOException;
+
+/**
+ * Class WorldFormatException. Thrown when a game file is not in the
+ * format AdventureLoader expects, naming the file and line at fault.
+ */
+public class WorldFormatException extends IOException {
+
+    /**
+     * The file at fault.
+     */
+    private final String fileName;
+
+    /**
+     * The line at fault, counting from 1.
+     */
+    private final int lineNumber;
+
+    /**
+     * WorldFormatException Constructor.
+     *
+     * @param fileName the file at fault
+     * @param lineNumber the line at fault, counting from 1
+     * @param message what is wrong with the line
+     */
+    public WorldFormatException(String fileName, int lineNumber, String message) {
+        super(fileName + ":" + lineNumber + ": " + message);
+        this.fileName = fileName;
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * Getter method for the fileName attribute.
+     *
+     * @return the file at fault
+     */
+    public String getFileName() {
+        return this.fileName;
+    }
+
+    /**
+     * Getter method for the lineNumber attribute.
+     *
+     * @return the line at fault, counting from 1
+     */
+    public int getLineNumber() {
+        return this.lineNumber;
+    }
+}
@@ -0,0 +1,288 @@
+package AdventureModel;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Class WorldPack. A compiled, binary form of a game directory
+ * (world.pack) that loads without parsing any text.
+ *
+ * A pack holds, in order:
+ * <ul>
+ *     <li>the magic number "AGWP" and the format version;</li>
+ *     <li>a string pool: every distinct name, description and synonym, once;</li>
+ *     <li>the symbol table, as string pool indices in symbol order;</li>
+ *     <li>the rooms, each with its passages as (direction symbol, destination, key);</li>
+ *     <li>the object names, in object ID order;</li>
+ *     <li>the objects, room by room in the order each room holds them,
+ *     with their starting rooms;</li>
+ *     <li>the synonyms and the help text.</li>
+ * </ul>
+ * All numbers are big-endian ints. Strings are referred to by their index
+ * in the pool, or -1 for none. Loading a pack maps the file and reads it
+ * once from front to back, and builds the same rooms, passages, objects
+ * and symbols as AdventureLoader would from the text files: objects get
+ * the same IDs and sit in their rooms in the same order, so the World
+ * has the same fingerprint and takes the same saves.
+ */
+public class WorldPack {
+
+    /**
+     * The name of the pack file in a game directory.
+     */
+    public static final String FILE_NAME = "world.pack";
+
+    /**
+     * The first four bytes of every pack, "AGWP".
+     */
+    private static final int MAGIC = 0x41475750;
+
+    /**
+     * The version of the format. Packs of any other version are ignored.
+     */
+    static final int VERSION = 2;
+
+    /**
+     * The text files a pack is compiled from.
+     */
+    private static final String[] SOURCES = {"rooms.txt", "objects.txt", "synonyms.txt", "help.txt"};
+
+    /**
+     * No instances; everything is static.
+     */
+    private WorldPack() {
+    }
+
+    /**
+     * Compiles a game directory into its world.pack.
+     *
+     * @param directory the game directory
+     * @return the pack file
+     * @throws IOException in the case of a file I/O error, or if the text files are not valid
+     */
+    public static File compile(File directory) throws IOException {
+        World world = World.read(directory, LoadOptions.defaults());
+        File pack = new File(directory, FILE_NAME);
+        write(world, pack);
+        return pack;
+    }
+
+    /**
+     * Writes a freshly loaded game as a pack. The pack is written to a
+     * temporary file first and then moved into place, so a half-written
+     * pack is never read.
+     *
+     * @param world the world, as loaded from its text files
+     * @param pack the file to write
+     * @throws IOException in the case of a file I/O error.
+     */
+    static void write(World world, File pack) throws IOException {
+        StringPool pool = new StringPool();
+        SymbolTable symbols = world.getSymbols();
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(body)) {
+            out.writeInt(symbols.size());
+            for (int symbol = 0; symbol < symbols.size(); symbol++) out.writeInt(pool.index(symbols.name(symbol)));
+
+            out.writeInt(world.getRooms().size());
+            for (Room room : world.getRooms().values()) {
+                out.writeInt(room.getRoomNumber());
+                out.writeInt(pool.index(room.getRoomName()));
+                out.writeInt(pool.index(room.getRoomDescription()));
+                List<Passage> passages = room.getMotionTable().getDirection();
+                out.writeInt(passages.size());
+                for (Passage entry : passages) {
+                    out.writeInt(entry.getDirectionSymbol());
+                    out.writeInt(entry.getDestinationRoom());
+                    out.writeInt(entry.getIsBlocked() ? pool.index(entry.getKeyName()) : -1);
+                }
+            }
+
+            // the names first, so IDs are handed out in the order objects.txt gave them
+            out.writeInt(world.getObjectCount());
+            for (int id = 0; id < world.getObjectCount(); id++) out.writeInt(pool.index(world.getObject(id).getName()));
+
+            int objectCount = 0;
+            for (Room room : world.getRooms().values()) objectCount += room.objectsInRoom.size();
+            out.writeInt(objectCount);
+            for (Room room : world.getRooms().values()) {
+                for (AdventureObject object : room.objectsInRoom) {
+                    out.writeInt(pool.index(object.getName()));
+                    out.writeInt(pool.index(object.getDescription()));
+                    out.writeInt(room.getRoomNumber());
+                }
+            }
+
+            out.writeInt(world.getSynonyms().size());
+            for (Map.Entry<String, String> synonym : world.getSynonyms().entrySet()) {
+                out.writeInt(pool.index(synonym.getKey()));
+                out.writeInt(pool.index(synonym.getValue()));
+            }
+
+            out.writeInt(pool.index(world.getHelpText()));
+        }
+
+        File temp = new File(pack.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            pool.writeTo(out);
+            body.writeTo(out);
+        }
+        Files.move(temp.toPath(), pack.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Checks whether a game directory has a pack that can be used in
+     * place of its text files: the pack exists, is of this version,
+     * and is newer than every text file.
+     *
+     * @param directory the game directory
+     * @return true if the pack is up to date
+     */
+    public static boolean isCurrent(File directory) {
+        File pack = new File(directory, FILE_NAME);
+        if (!pack.isFile()) return false;
+        for (String source : SOURCES) {
+            if (new File(directory, source).lastModified() > pack.lastModified()) return false;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(pack))) {
+            return in.readInt() == MAGIC && in.readInt() == VERSION;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Loads a game from its pack.
+     *
+     * @param world the world to fill in, with nothing loaded yet
+     * @param pack the pack file
+     * @throws IOException in the case of a file I/O error, or if the pack is damaged
+     */
+    static void read(World world, File pack) throws IOException {
+        MappedByteBuffer in;
+        try (FileChannel channel = FileChannel.open(pack.toPath(), StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (in.getInt() != MAGIC) throw new WorldFormatException(pack.getName(), 0, "Not a world pack");
+            int version = in.getInt();
+            if (version != VERSION) throw new WorldFormatException(pack.getName(), 0, "Pack version " + version + ", expected " + VERSION);
+            String[] strings = readPool(in);
+
+            SymbolTable symbols = world.getSymbols();
+            int symbolCount = in.getInt();
+            for (int symbol = 0; symbol < symbolCount; symbol++) symbols.intern(strings[in.getInt()]);
+
+            String adventureName = world.getDirectoryName();
+            int roomCount = in.getInt();
+            for (int r = 0; r < roomCount; r++) {
+                int number = in.getInt();
+                Room room = new Room(strings[in.getInt()], number, strings[in.getInt()], adventureName);
+                int passageCount = in.getInt();
+                for (int p = 0; p < passageCount; p++) {
+                    int directionSymbol = in.getInt();
+                    int destination = in.getInt();
+                    int key = in.getInt();
+                    room.getMotionTable().addDirection(new Passage(symbols.name(directionSymbol), directionSymbol, destination, key < 0 ? null : strings[key]));
+                }
+                world.getRooms().put(number, room);
+            }
+            world.getRooms().trimToSize();
+
+            int nameCount = in.getInt();
+            for (int id = 0; id < nameCount; id++) world.assignObjectId(strings[in.getInt()]);
+            int objectCount = in.getInt();
+            for (int o = 0; o < objectCount; o++) {
+                String name = strings[in.getInt()];
+                String description = strings[in.getInt()];
+                Room location = world.getRooms().get(in.getInt());
+                location.addGameObject(new AdventureObject(name, description, location, world.assignObjectId(name)));
+            }
+            for (Room room : world.getRooms().values()) {
+                for (Passage entry : room.getMotionTable().getDirection()) {
+                    if (entry.getIsBlocked()) entry.setKeyId(world.getObjectId(entry.getKeyName()));
+                }
+            }
+
+            int synonymCount = in.getInt();
+            for (int s = 0; s < synonymCount; s++) world.getSynonymTable().put(strings[in.getInt()], strings[in.getInt()]);
+
+            world.setHelpText(strings[in.getInt()]);
+        } catch (RuntimeException e) { // a truncated or damaged pack
+            throw new WorldFormatException(pack.getName(), 0, "Damaged world pack: " + e);
+        }
+    }
+
+    /**
+     * Reads the string pool.
+     *
+     * @param in the pack, just after the header
+     * @return the strings, by index
+     */
+    private static String[] readPool(ByteBuffer in) {
+        String[] strings = new String[in.getInt()];
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < strings.length; i++) {
+            int length = in.getInt();
+            if (bytes.length < length) bytes = new byte[Math.max(length, bytes.length * 2)];
+            in.get(bytes, 0, length);
+            strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    /**
+     * The distinct strings of a pack, in the order they were first used.
+     */
+    private static class StringPool {
+
+        /**
+         * The index of each string.
+         */
+        private final HashMap<String, Integer> indices = new HashMap<>();
+
+        /**
+         * The strings, by index.
+         */
+        private final List<String> strings = new ArrayList<>();
+
+        /**
+         * Returns the index of a string, adding it if it is new.
+         *
+         * @param string the string, not null
+         * @return its index
+         */
+        int index(String string) {
+            return indices.computeIfAbsent(string, s -> {
+                strings.add(s);
+                return strings.size() - 1;
+            });
+        }
+
+        /**
+         * Writes the pool: the number of strings, then each one
+         * as its length in bytes and its UTF-8 bytes.
+         *
+         * @param out where to write
+         * @throws IOException in the case of a file I/O error.
+         */
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(strings.size());
+            for (String string : strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+}
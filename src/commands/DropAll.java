@@ -28,7 +28,7 @@ public class DropAll implements ObjectCommand{
      */
     @Override
     public void execute() {
-        this.model.getPlayer().getCurrentRoom().objectsInRoom.addAll(this.model.getPlayer().inventory);
+        this.model.changeObjectsInRoom(this.model.getPlayer().getCurrentRoom()).addAll(this.model.getPlayer().inventory);
         this.model.getPlayer().inventory.clear();
     }
 }
@@ -1,6 +1,7 @@
 package commands;
 
 import AdventureModel.AdventureGame;
+import AdventureModel.ObjectContainer;
 
 /**
  * TakeAll Class. Takes all objects in the current room into the player's inventory.
@@ -29,7 +30,8 @@ public class TakeAll implements ObjectCommand{
      */
     @Override
     public void execute() {
-        this.model.getPlayer().inventory.addAll(this.model.getPlayer().getCurrentRoom().objectsInRoom);
-        this.model.getPlayer().getCurrentRoom().objectsInRoom.clear();
+        ObjectContainer room = this.model.changeObjectsInRoom(this.model.getPlayer().getCurrentRoom());
+        this.model.getPlayer().inventory.addAll(room);
+        room.clear();
     }
 }
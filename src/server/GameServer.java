@@ -0,0 +1,258 @@
+package server;
+
+import AdventureModel.LoadOptions;
+import AdventureModel.World;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class GameServer. Hosts many players on one JVM: it listens on a port
+ * of the local machine and gives every connection a GameSession of its
+ * own, all of them playing on one shared World. See GameSession for the
+ * line protocol.
+ *
+ * Every session gets a thread of its own. Where the JVM has virtual
+ * threads (Java 21 and up) those are used, so idle sessions cost little
+ * more than their socket and their game; on older JVMs the server falls
+ * back to ordinary threads with small stacks.
+ *
+ * Usage: java server.GameServer [port=4321] [game=Games/TinyGame] [lazy=true] [pack=true] [parallel=true]
+ */
+public class GameServer implements Closeable {
+
+    /**
+     * The port used when none is given.
+     */
+    public static final int DEFAULT_PORT = 4321;
+
+    /**
+     * How many connections may wait to be accepted.
+     */
+    private static final int BACKLOG = 4096;
+
+    /**
+     * The stack size of a session thread, when they are not virtual.
+     */
+    private static final long PLATFORM_STACK_SIZE = 256 * 1024;
+
+    /**
+     * The world every session plays on.
+     */
+    private final World world;
+
+    /**
+     * The socket connections are accepted on.
+     */
+    private final ServerSocket serverSocket;
+
+    /**
+     * Runs the sessions, one thread each.
+     */
+    private final ExecutorService sessions = newSessionExecutor();
+
+    /**
+     * The sessions that are connected.
+     */
+    private final Set<GameSession> connected = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The number of sessions connected.
+     */
+    private final AtomicInteger activeSessions = new AtomicInteger();
+
+    /**
+     * The number of sessions since the server started.
+     */
+    private final AtomicLong totalSessions = new AtomicLong();
+
+    /**
+     * Latencies of the commands of every session.
+     */
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    /**
+     * The thread that accepts connections.
+     */
+    private Thread acceptor;
+
+    /**
+     * GameServer Constructor. Binds to the port, but does not
+     * accept connections until start() is called.
+     *
+     * @param world the world every session plays on
+     * @param port the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public GameServer(World world, int port) throws IOException {
+        this.world = world;
+        this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * Starts accepting connections, on a thread of its own.
+     */
+    public synchronized void start() {
+        if (this.acceptor != null) throw new IllegalStateException("The server is already started");
+        this.acceptor = new Thread(this::acceptConnections, "game-server-acceptor");
+        this.acceptor.start();
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     */
+    private void acceptConnections() {
+        while (!this.serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = this.serverSocket.accept();
+            } catch (SocketException e) {
+                return; // closed
+            } catch (IOException e) {
+                System.err.println("Could not accept a connection: " + e.getMessage());
+                continue;
+            }
+            GameSession session = new GameSession(this, socket);
+            this.connected.add(session);
+            this.activeSessions.incrementAndGet();
+            this.totalSessions.incrementAndGet();
+            try {
+                this.sessions.execute(session);
+            } catch (RejectedExecutionException e) {
+                sessionEnded(session);
+                session.close();
+            }
+        }
+    }
+
+    /**
+     * Called by a session when its player is gone.
+     *
+     * @param session the session that ended
+     */
+    void sessionEnded(GameSession session) {
+        if (this.connected.remove(session)) this.activeSessions.decrementAndGet();
+    }
+
+    /**
+     * Stops accepting connections and disconnects every session.
+     *
+     * @throws IOException if the server socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.serverSocket.close();
+        for (GameSession session : this.connected) session.close();
+        this.sessions.shutdown();
+    }
+
+    /**
+     * Getter method for the world attribute.
+     *
+     * @return the world every session plays on
+     */
+    public World getWorld() {
+        return this.world;
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the number of sessions connected.
+     *
+     * @return the number of sessions
+     */
+    public int getActiveSessions() {
+        return this.activeSessions.get();
+    }
+
+    /**
+     * Returns the number of sessions since the server started.
+     *
+     * @return the number of sessions
+     */
+    public long getTotalSessions() {
+        return this.totalSessions.get();
+    }
+
+    /**
+     * Returns the latencies of the commands of every session.
+     *
+     * @return the aggregate histogram
+     */
+    public LatencyHistogram getLatency() {
+        return this.latency;
+    }
+
+    /**
+     * Creates the executor that runs sessions: a virtual thread per
+     * session where the JVM has them, and a cached pool of small
+     * daemon threads otherwise.
+     *
+     * @return the executor
+     */
+    static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(null, task, "game-session-" + count.incrementAndGet(), PLATFORM_STACK_SIZE);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * The main method. Loads a game and serves it until the JVM is stopped.
+     *
+     * @param args settings as name=value: port, game, lazy, pack and parallel
+     * @throws IOException if the game cannot be loaded or the port bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        String game = "Games/TinyGame";
+        LoadOptions options = LoadOptions.defaults();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            String name = eq < 0 ? arg : arg.substring(0, eq);
+            String value = eq < 0 ? "true" : arg.substring(eq + 1);
+            switch (name) {
+                case "port": port = Integer.parseInt(value); break;
+                case "game": game = value; break;
+                case "lazy": options.setLazyDescriptions(Boolean.parseBoolean(value)); break;
+                case "pack": options.setUsePack(Boolean.parseBoolean(value)); break;
+                case "parallel": options.setParallel(Boolean.parseBoolean(value)); break;
+                default:
+                    System.err.println("Usage: java server.GameServer [port=N] [game=DIR] [lazy=true] [pack=true] [parallel=true]");
+                    System.exit(1);
+            }
+        }
+
+        World world = World.load(new File(game), options);
+        GameServer server = new GameServer(world, port);
+        server.start();
+        System.out.println("Serving " + world.getDirectoryName() + " (" + world.getRooms().size() + " rooms) on "
+                + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort());
+    }
+}
@@ -0,0 +1,211 @@
+package server;
+
+import AdventureModel.AdventureGame;
+import AdventureModel.CommandResult;
+import AdventureModel.GameEngine;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Class GameSession. One player connected to a GameServer, with a game
+ * of their own on the server's shared World.
+ *
+ * The protocol is line based. The client sends one command per line.
+ * Every reply is zero or more lines of text followed by a line holding
+ * only ".", and a reply line that starts with "." gets another "."
+ * in front of it (as in SMTP), so the end of a reply is always clear.
+ * Besides the game's own commands, a session understands STATS, which
+ * replies with the session's and the server's command latencies.
+ * The session ends after a reply whose last line is "GAME OVER", or
+ * FORCED_LOOP if the game kept moving the player on its own (a game
+ * whose FORCED passages go round in a circle).
+ *
+ * A session is on its own thread (a virtual thread, where there are
+ * any) and blocks on its socket between commands. Buffers are kept
+ * small, because most sessions spend most of their time idle.
+ */
+public class GameSession implements Runnable {
+
+    /**
+     * The most FORCED moves followed for one command, in case a game loops.
+     */
+    static final int MAX_FORCED_MOVES = 100;
+
+    /**
+     * The last line of the reply that ends a session after MAX_FORCED_MOVES FORCED moves.
+     */
+    static final String FORCED_LOOP = "ERROR: THE GAME KEEPS MOVING YOU WITHOUT END. GAME OVER";
+
+    /**
+     * The server this session belongs to.
+     */
+    private final GameServer server;
+
+    /**
+     * The connection to the player.
+     */
+    private final Socket socket;
+
+    /**
+     * The game being played, created once the session starts.
+     */
+    private GameEngine engine;
+
+    /**
+     * Latencies of this session's commands, created on the first command.
+     */
+    private LatencyHistogram latency;
+
+    /**
+     * Where replies are written.
+     */
+    private Writer out;
+
+    /**
+     * GameSession Constructor.
+     *
+     * @param server the server the session belongs to
+     * @param socket the connection to the player
+     */
+    GameSession(GameServer server, Socket socket) {
+        this.server = server;
+        this.socket = socket;
+    }
+
+    /**
+     * Plays the game until the player quits, the game ends,
+     * or the connection is closed.
+     */
+    @Override
+    public void run() {
+        try (Socket socket = this.socket) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), 256);
+            this.out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), 1024);
+            this.engine = new GameEngine(new AdventureGame(this.server.getWorld()));
+            reply(look());
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                long start = System.nanoTime();
+                String command = line.trim();
+                if (command.equalsIgnoreCase("STATS")) {
+                    reply(stats());
+                    continue;
+                }
+                StringBuilder text = new StringBuilder();
+                boolean over = play(command, text);
+                reply(text);
+                record(System.nanoTime() - start);
+                if (over) break;
+            }
+        } catch (IOException e) {
+            // the player went away; nothing to tell them
+        } finally {
+            this.server.sessionEnded(this);
+        }
+    }
+
+    /**
+     * Runs a command, following any FORCED moves it leads to.
+     *
+     * @param command the command as typed by the player
+     * @param text where the reply is put
+     * @return true if the game is over
+     */
+    private boolean play(String command, StringBuilder text) {
+        AdventureGame game = this.engine.getModel();
+        int roomBefore = game.getPlayer().getCurrentRoom().getRoomNumber();
+        CommandResult result = this.engine.submit(command);
+        for (int forced = 0; ; forced++) {
+            switch (result.getType()) {
+                case MOVED:
+                    text.append(look());
+                    return false;
+                case FORCED:
+                    text.append(look()).append("\n\n");
+                    if (forced == MAX_FORCED_MOVES) {
+                        text.append(FORCED_LOOP);
+                        return true;
+                    }
+                    result = this.engine.submit("FORCED");
+                    break;
+                case GAME_OVER:
+                    // the move that ends a game leads into its last room, which has something to say
+                    if (game.getPlayer().getCurrentRoom().getRoomNumber() != roomBefore || forced > 0) {
+                        text.append(look()).append("\n\n");
+                    }
+                    text.append("GAME OVER");
+                    return true;
+                default:
+                    text.append(result.getText());
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * Describes the player's room, as the LOOK verb does.
+     *
+     * @return the description of the room and the objects in it
+     */
+    private String look() {
+        return this.engine.submit("LOOK").getText();
+    }
+
+    /**
+     * Describes the latencies of this session and of the server.
+     *
+     * @return the STATS reply
+     */
+    private String stats() {
+        LatencyHistogram session = this.latency == null ? new LatencyHistogram() : this.latency;
+        return "session " + session.summary() + "\n"
+                + "server sessions=" + this.server.getActiveSessions() + " " + this.server.getLatency().summary();
+    }
+
+    /**
+     * Records how long a command took, for this session and the server.
+     *
+     * @param nanos the latency, in nanoseconds
+     */
+    private void record(long nanos) {
+        if (this.latency == null) this.latency = new LatencyHistogram();
+        this.latency.record(nanos);
+        this.server.getLatency().record(nanos);
+    }
+
+    /**
+     * Sends a reply, ended by a line holding only ".".
+     *
+     * @param text the reply
+     * @throws IOException if the player went away
+     */
+    private void reply(CharSequence text) throws IOException {
+        int start = 0;
+        int length = text.length();
+        while (length > 0 && text.charAt(length - 1) == '\n') length--; // the "." line ends it instead
+        while (start < length) {
+            int end = start;
+            while (end < length && text.charAt(end) != '\n') end++;
+            if (text.charAt(start) == '.') this.out.write('.');
+            this.out.append(text, start, end).write('\n');
+            start = end + 1;
+        }
+        this.out.write(".\n");
+        this.out.flush();
+    }
+
+    /**
+     * Closes the connection, e.g. when the server shuts down.
+     */
+    void close() {
+        try {
+            this.socket.close();
+        } catch (IOException e) {
+            // closing anyway
+        }
+    }
+}
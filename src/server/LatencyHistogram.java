@@ -0,0 +1,158 @@
+package server;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class LatencyHistogram. Counts latencies, in nanoseconds, in log-linear
+ * buckets: every power of two is split into 16 buckets, so a percentile
+ * is off by at most 1/16 of its value. Recording is lock free, so one
+ * histogram can be shared by every session of a server.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Each power of two is split into 2^SUB_BITS buckets.
+     */
+    private static final int SUB_BITS = 4;
+
+    /**
+     * The number of buckets for each power of two.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /**
+     * The largest power of two counted; anything slower (about 18 minutes) is counted as this.
+     */
+    private static final int MAX_EXPONENT = 40;
+
+    /**
+     * The number of counts per bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray((MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS);
+
+    /**
+     * The number of latencies recorded.
+     */
+    private final AtomicLong total = new AtomicLong();
+
+    /**
+     * The largest latency recorded.
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos the latency, in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        this.counts.incrementAndGet(bucket(nanos));
+        this.total.incrementAndGet();
+        this.max.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Returns the number of latencies recorded.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return this.total.get();
+    }
+
+    /**
+     * Returns the largest latency recorded.
+     *
+     * @return the largest latency, in nanoseconds
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * Returns the latency that the given fraction of recorded latencies
+     * do not exceed, rounded up to the top of its bucket.
+     *
+     * @param fraction e.g. 0.99 for the 99th percentile
+     * @return the latency, in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getPercentile(double fraction) {
+        long count = this.total.get();
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < this.counts.length(); i++) {
+            seen += this.counts.get(i);
+            if (seen >= rank) return Math.min(upperBound(i), getMax());
+        }
+        return getMax(); // counts moved on while we were looking
+    }
+
+    /**
+     * Adds everything recorded by another histogram to this one.
+     *
+     * @param other the histogram to add
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < this.counts.length(); i++) {
+            long n = other.counts.get(i);
+            if (n != 0) this.counts.addAndGet(i, n);
+        }
+        this.total.addAndGet(other.total.get());
+        this.max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    /**
+     * Returns the count, the 50th, 99th and 99.9th percentiles
+     * and the maximum, on one line.
+     *
+     * @return the summary
+     */
+    public String summary() {
+        return "count=" + getCount()
+                + " p50=" + format(getPercentile(0.5))
+                + " p99=" + format(getPercentile(0.99))
+                + " p999=" + format(getPercentile(0.999))
+                + " max=" + format(getMax());
+    }
+
+    /**
+     * Formats a latency in microseconds or milliseconds.
+     *
+     * @param nanos the latency, in nanoseconds
+     * @return e.g. "250us" or "12.5ms"
+     */
+    public static String format(long nanos) {
+        if (nanos < 1_000_000) return (nanos / 1000) + "us";
+        return String.format("%.1fms", nanos / 1e6);
+    }
+
+    /**
+     * Returns the bucket a latency is counted in.
+     *
+     * @param nanos the latency, not negative
+     * @return the index of its bucket
+     */
+    private static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) return (int) nanos;
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(nanos), MAX_EXPONENT);
+        int shift = exponent - SUB_BITS;
+        int sub = (int) (Math.min(nanos >>> shift, 2L * SUB_BUCKETS - 1)) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the largest latency counted in a bucket.
+     *
+     * @param bucket the index of the bucket
+     * @return the latency, in nanoseconds
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,519 @@
+package server;
+
+import AdventureModel.AdventureGame;
+import AdventureModel.AdventureObject;
+import AdventureModel.CommandResult;
+import AdventureModel.GameEngine;
+import AdventureModel.LoadOptions;
+import AdventureModel.Room;
+import AdventureModel.World;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Class LoadClient. A load generator for GameServer, to find out how many
+ * players a host can take. It opens a number of sessions on a server on
+ * this machine and sends them commands at a rate that ramps from a start
+ * rate to an end rate, then writes throughput, latency percentiles and
+ * error counts for every reporting interval, and for the whole run, to
+ * a report file.
+ *
+ * Commands either come from a script (one command per line, replayed from
+ * the top by every session) or are a random walk: each session plays a
+ * copy of the game locally, so it always knows which room it is in and
+ * which directions, objects and verbs make sense there.
+ *
+ * The load is open loop: every command has a time it is due, and its
+ * latency is measured from that time, so a server that falls behind
+ * shows it in the percentiles instead of slowing the client down.
+ *
+ * Usage: java server.LoadClient [port=4321] [game=Games/TinyGame] [sessions=100]
+ * [script=FILE] [rate=100] [endRate=RATE] [duration=60] [interval=5] [seed=1] [report=loadtest.txt]
+ */
+public class LoadClient {
+
+    /**
+     * The port of the server.
+     */
+    private final int port;
+
+    /**
+     * The world the server plays, for random walks.
+     */
+    private final World world;
+
+    /**
+     * How many sessions to open.
+     */
+    private final int sessions;
+
+    /**
+     * The commands to replay, or null for a random walk.
+     */
+    private final List<String> script;
+
+    /**
+     * Commands per second at the start of the run.
+     */
+    private final double startRate;
+
+    /**
+     * Commands per second at the end of the run.
+     */
+    private final double endRate;
+
+    /**
+     * How long the run lasts, in seconds.
+     */
+    private final double duration;
+
+    /**
+     * Seeds the random walks, so runs can be repeated.
+     */
+    private final long seed;
+
+    /**
+     * The number of commands handed out so far.
+     */
+    private final AtomicLong issued = new AtomicLong();
+
+    /**
+     * Errors since the last report: failed connections, dropped
+     * connections, and replies the session did not expect.
+     */
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * The sessions, whose latencies since the last report are merged for each report line.
+     */
+    private final List<Bot> bots = new ArrayList<>();
+
+    /**
+     * When the run started, as System.nanoTime().
+     */
+    private long startNanos;
+
+    /**
+     * LoadClient Constructor.
+     *
+     * @param port the port of the server
+     * @param world the world the server plays
+     * @param sessions how many sessions to open
+     * @param script the commands to replay, or null for a random walk
+     * @param startRate commands per second at the start
+     * @param endRate commands per second at the end
+     * @param duration how long the run lasts, in seconds
+     * @param seed seeds the random walks
+     */
+    public LoadClient(int port, World world, int sessions, List<String> script,
+                      double startRate, double endRate, double duration, long seed) {
+        if (sessions < 1) throw new IllegalArgumentException("At least one session is needed");
+        if (startRate < 0 || endRate < 0 || startRate + endRate == 0) throw new IllegalArgumentException("The rate must be positive");
+        if (script != null && script.isEmpty()) throw new IllegalArgumentException("The script has no commands");
+        this.port = port;
+        this.world = world;
+        this.sessions = sessions;
+        this.script = script;
+        this.startRate = startRate;
+        this.endRate = endRate;
+        this.duration = duration;
+        this.seed = seed;
+    }
+
+    /**
+     * Runs the load and writes the report.
+     *
+     * @param report the file to write the report to
+     * @param reportEvery seconds between report lines
+     * @return the latencies of the whole run
+     * @throws IOException if the report cannot be written
+     * @throws InterruptedException if interrupted while waiting for the sessions
+     */
+    public LatencyHistogram run(File report, double reportEvery) throws IOException, InterruptedException {
+        LatencyHistogram overall = new LatencyHistogram();
+        long totalErrors = 0;
+        CountDownLatch connected = new CountDownLatch(this.sessions);
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = GameServer.newSessionExecutor();
+        for (int i = 0; i < this.sessions; i++) {
+            Bot bot = new Bot(this.seed + i, connected, go);
+            this.bots.add(bot);
+            pool.execute(bot);
+        }
+        pool.shutdown();
+        connected.await();
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(report.toPath(), StandardCharsets.UTF_8))) {
+            report(out, "# LoadClient game=" + this.world.getDirectoryName() + " sessions=" + this.sessions
+                    + " commands=" + (this.script == null ? "walk" : "script") + " rate=" + this.startRate + "->" + this.endRate
+                    + "/s duration=" + this.duration + "s");
+            report(out, "# elapsed_s target_per_s throughput_per_s p50_us p99_us p999_us max_us errors");
+
+            this.startNanos = System.nanoTime();
+            go.countDown();
+            long every = (long) (reportEvery * 1e9);
+            long last = this.startNanos;
+            boolean running = true;
+            while (running) {
+                running = !pool.awaitTermination(Math.max(0, last + every - System.nanoTime()), TimeUnit.NANOSECONDS);
+                long now = System.nanoTime();
+                LatencyHistogram latency = new LatencyHistogram();
+                for (Bot bot : this.bots) latency.add(bot.takeLatency());
+                long intervalErrors = this.errors.getAndSet(0);
+                overall.add(latency);
+                totalErrors += intervalErrors;
+                double elapsed = (now - this.startNanos) / 1e9;
+                report(out, line(String.format("%.1f %.0f", elapsed, rateAt(Math.min(elapsed, this.duration))),
+                        latency, (now - last) / 1e9, intervalErrors));
+                last = now;
+            }
+            report(out, line("# total " + String.format("%.1f", (System.nanoTime() - this.startNanos) / 1e9),
+                    overall, (System.nanoTime() - this.startNanos) / 1e9, totalErrors));
+        }
+        return overall;
+    }
+
+    /**
+     * Formats a report line.
+     *
+     * @param prefix the start of the line
+     * @param latency the latencies of the interval
+     * @param seconds the length of the interval
+     * @param errors the errors in the interval
+     * @return the line
+     */
+    private static String line(String prefix, LatencyHistogram latency, double seconds, long errors) {
+        return String.format("%s %.0f %d %d %d %d %d", prefix, latency.getCount() / seconds,
+                latency.getPercentile(0.5) / 1000, latency.getPercentile(0.99) / 1000,
+                latency.getPercentile(0.999) / 1000, latency.getMax() / 1000, errors);
+    }
+
+    /**
+     * Writes a line to the report, and to the console.
+     *
+     * @param out the report
+     * @param line the line
+     */
+    private static void report(PrintWriter out, String line) {
+        out.println(line);
+        out.flush();
+        System.out.println(line);
+    }
+
+    /**
+     * Returns the target rate at a moment of the run.
+     *
+     * @param seconds seconds since the start
+     * @return commands per second
+     */
+    private double rateAt(double seconds) {
+        return this.startRate + (this.endRate - this.startRate) * seconds / this.duration;
+    }
+
+    /**
+     * Returns when a command is due. The rate ramps linearly, so the
+     * number of commands due by time t is startRate*t + slope*t*t/2,
+     * and this solves that for t.
+     *
+     * @param command the number of the command, from 0
+     * @return seconds since the start, or infinity if it is never due
+     */
+    private double dueAt(long command) {
+        if (this.startRate == this.endRate) return command / this.startRate;
+        double halfSlope = (this.endRate - this.startRate) / (2 * this.duration);
+        double discriminant = this.startRate * this.startRate + 4 * halfSlope * command;
+        if (discriminant < 0) return Double.POSITIVE_INFINITY; // ramping down, and past the last command
+        return (Math.sqrt(discriminant) - this.startRate) / (2 * halfSlope);
+    }
+
+    /**
+     * One session: a connection to the server, and for random walks,
+     * a local copy of its game.
+     */
+    private class Bot implements Runnable {
+
+        /**
+         * Picks the commands of a random walk.
+         */
+        private final Random random;
+
+        /**
+         * Counted down once the session is connected, or has failed to connect.
+         */
+        private final CountDownLatch connected;
+
+        /**
+         * Counted down when the run starts.
+         */
+        private final CountDownLatch go;
+
+        /**
+         * The connection, or null when it has to be opened again.
+         */
+        private Socket socket;
+
+        /**
+         * Replies from the server.
+         */
+        private BufferedReader in;
+
+        /**
+         * Commands to the server.
+         */
+        private Writer out;
+
+        /**
+         * The local copy of the game, for random walks.
+         */
+        private GameEngine shadow;
+
+        /**
+         * The next line of the script.
+         */
+        private int scriptLine;
+
+        /**
+         * Latencies of this session since the last report. Guarded by the
+         * bot, so a latency is either in the histogram the report takes or
+         * in the one that replaces it, never lost between the two.
+         */
+        private LatencyHistogram latency = new LatencyHistogram();
+
+        /**
+         * Bot Constructor.
+         *
+         * @param seed seeds the random walk
+         * @param connected counted down once connected
+         * @param go counted down when the run starts
+         */
+        Bot(long seed, CountDownLatch connected, CountDownLatch go) {
+            this.random = new Random(seed);
+            this.connected = connected;
+            this.go = go;
+        }
+
+        /**
+         * Connects, waits for the run to start, then sends commands when they are due.
+         */
+        @Override
+        public void run() {
+            try {
+                connect();
+            } catch (IOException e) {
+                errors.incrementAndGet();
+                disconnect();
+            } finally {
+                this.connected.countDown();
+            }
+            try {
+                this.go.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            while (true) {
+                double due = dueAt(issued.getAndIncrement());
+                if (due > duration) break;
+                long dueNanos = startNanos + (long) (due * 1e9);
+                for (long wait; (wait = dueNanos - System.nanoTime()) > 0; ) LockSupport.parkNanos(wait);
+                try {
+                    if (this.socket == null) connect();
+                    send(nextCommand());
+                    record(System.nanoTime() - dueNanos);
+                } catch (IOException e) {
+                    errors.incrementAndGet();
+                    disconnect();
+                }
+            }
+            disconnect();
+        }
+
+        /**
+         * Records the latency of a command.
+         *
+         * @param nanos the latency, in nanoseconds
+         */
+        private synchronized void record(long nanos) {
+            this.latency.record(nanos);
+        }
+
+        /**
+         * Hands over the latencies since the last call, and starts counting again.
+         *
+         * @return the latencies since the last call
+         */
+        synchronized LatencyHistogram takeLatency() {
+            LatencyHistogram taken = this.latency;
+            this.latency = new LatencyHistogram();
+            return taken;
+        }
+
+        /**
+         * Opens a new session, with a fresh game.
+         *
+         * @throws IOException if the server cannot be reached
+         */
+        private void connect() throws IOException {
+            this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            this.socket.setTcpNoDelay(true);
+            this.in = new BufferedReader(new InputStreamReader(this.socket.getInputStream(), StandardCharsets.UTF_8), 1024);
+            this.out = new BufferedWriter(new OutputStreamWriter(this.socket.getOutputStream(), StandardCharsets.UTF_8), 256);
+            if (script == null) this.shadow = new GameEngine(new AdventureGame(world));
+            this.scriptLine = 0;
+            readReply();
+        }
+
+        /**
+         * Closes the session, if it is open.
+         */
+        private void disconnect() {
+            if (this.socket == null) return;
+            try {
+                this.socket.close();
+            } catch (IOException e) {
+                // closing anyway
+            }
+            this.socket = null;
+        }
+
+        /**
+         * Sends a command and checks the reply.
+         *
+         * @param command the command
+         * @throws IOException if the connection fails
+         */
+        private void send(String command) throws IOException {
+            this.out.write(command);
+            this.out.write('\n');
+            this.out.flush();
+            String last = readReply();
+            boolean over = last.equals("GAME OVER") || last.equals(GameSession.FORCED_LOOP);
+            if (last.equals("INVALID COMMAND.") && script == null) errors.incrementAndGet(); // the walk only sends valid commands
+            if (this.shadow != null && over != play(command)) {
+                errors.incrementAndGet(); // out of step with the server; start again
+                disconnect();
+            } else if (over) {
+                disconnect();
+            }
+        }
+
+        /**
+         * Reads a reply, up to its "." line.
+         *
+         * @return the last line of the reply, or "" if it was empty
+         * @throws IOException if the connection fails or closes
+         */
+        private String readReply() throws IOException {
+            String last = "";
+            String line;
+            while ((line = this.in.readLine()) != null) {
+                if (line.equals(".")) return last;
+                last = line.startsWith(".") ? line.substring(1) : line;
+            }
+            throw new EOFException("The server closed the session");
+        }
+
+        /**
+         * Runs a command on the local copy of the game, following FORCED
+         * moves as the server does.
+         *
+         * @param command the command
+         * @return true if the game is over
+         */
+        private boolean play(String command) {
+            CommandResult result = this.shadow.submit(command);
+            for (int forced = 0; result.getType() == CommandResult.Type.FORCED; forced++) {
+                if (forced == GameSession.MAX_FORCED_MOVES) return true; // the server sends FORCED_LOOP
+                result = this.shadow.submit("FORCED");
+            }
+            return result.isGameOver();
+        }
+
+        /**
+         * Picks the next command.
+         *
+         * @return the command
+         */
+        private String nextCommand() {
+            if (script != null) return script.get(this.scriptLine++ % script.size());
+            AdventureGame game = this.shadow.getModel();
+            Room room = game.getPlayer().getCurrentRoom();
+            int roll = this.random.nextInt(100);
+            if (roll < 10) {
+                String name = pick(game.getObjectsInRoom(room));
+                if (name != null) return "TAKE " + name;
+            } else if (roll < 15) {
+                String name = pick(game.getPlayer().inventory);
+                if (name != null) return "DROP " + name;
+            } else if (roll < 20) {
+                return new String[] {"LOOK", "INVENTORY", "COMMANDS"}[this.random.nextInt(3)];
+            }
+            List<String> directions = room.getMotionTable().getDirectionNames();
+            directions.remove("FORCED");
+            return directions.isEmpty() ? "LOOK" : directions.get(this.random.nextInt(directions.size()));
+        }
+
+        /**
+         * Picks an object at random.
+         *
+         * @param objects the objects to pick from
+         * @return the name of the object, or null if there are none
+         */
+        private String pick(Collection<AdventureObject> objects) {
+            if (objects.isEmpty()) return null;
+            int skip = this.random.nextInt(objects.size());
+            for (AdventureObject object : objects) if (skip-- == 0) return object.getName();
+            return null;
+        }
+    }
+
+    /**
+     * The main method. Runs the load against a server on this machine.
+     *
+     * @param args settings as name=value: port, game, sessions, script, rate,
+     *             endRate, duration, interval, seed and report
+     * @throws Exception if the game or script cannot be read, or the run is interrupted
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> settings = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                System.err.println("Usage: java server.LoadClient [port=N] [game=DIR] [sessions=N] [script=FILE] [rate=N] [endRate=N] "
+                        + "[duration=SECONDS] [interval=SECONDS] [seed=N] [report=FILE]");
+                System.exit(1);
+            }
+            settings.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        int port = Integer.parseInt(settings.getOrDefault("port", String.valueOf(GameServer.DEFAULT_PORT)));
+        World world = World.load(new File(settings.getOrDefault("game", "Games/TinyGame")), LoadOptions.defaults().setLazyDescriptions(true));
+        int sessions = Integer.parseInt(settings.getOrDefault("sessions", "100"));
+        List<String> script = null;
+        if (settings.containsKey("script")) {
+            script = new ArrayList<>();
+            for (String line : Files.readAllLines(new File(settings.get("script")).toPath(), StandardCharsets.UTF_8)) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) script.add(line);
+            }
+        }
+        double rate = Double.parseDouble(settings.getOrDefault("rate", "100"));
+        double endRate = Double.parseDouble(settings.getOrDefault("endRate", String.valueOf(rate)));
+        double duration = Double.parseDouble(settings.getOrDefault("duration", "60"));
+        double interval = Double.parseDouble(settings.getOrDefault("interval", "5"));
+        long seed = Long.parseLong(settings.getOrDefault("seed", "1"));
+        File report = new File(settings.getOrDefault("report", "loadtest.txt"));
+
+        new LoadClient(port, world, sessions, script, rate, endRate, duration, seed).run(report, interval);
+        System.out.println("Report written to " + report);
+    }
+}
@@ -0,0 +1,321 @@
+package tools;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+/**
+ * Class WorldGenerator. Writes a random but reproducible game directory
+ * (rooms.txt, objects.txt, synonyms.txt and help.txt) in the format
+ * AdventureLoader reads, for stress and scaling tests.
+ *
+ * The rooms 1..n form a ring joined by EAST/WEST, so every room can be
+ * reached. Each room gets more exits up to the branching factor, some of
+ * them blocked by an object. FORCED chains are entered with PLUGH and
+ * lead back into the ring, and XYZZY from the last ring room goes to a
+ * room that ends the game. Everything is written as it is generated,
+ * so memory use does not depend on the number of rooms.
+ *
+ * Usage: java tools.WorldGenerator DIR [rooms=N] [branching=N] [blocked=0.0-1.0]
+ * [chains=N] [chainLength=N] [objects=N] [descriptionLength=N] [seed=N]
+ */
+public class WorldGenerator {
+
+    /**
+     * Directions for the extra exits of a room, beyond EAST and WEST.
+     */
+    private static final String[] DIRECTIONS = {
+            "NORTH", "SOUTH", "UP", "DOWN", "IN", "OUT", "NORTHEAST", "NORTHWEST",
+            "SOUTHEAST", "SOUTHWEST", "CLIMB", "JUMP", "CRAWL", "ENTER", "EXIT", "SWIM"
+    };
+
+    /**
+     * Words room descriptions are made of.
+     */
+    private static final String[] WORDS = {
+            "a", "the", "damp", "narrow", "passage", "cave", "stream", "rock", "dusty", "old",
+            "building", "light", "dark", "shimmering", "curtain", "road", "hill", "valley", "forest",
+            "small", "large", "bird", "chest", "wall", "floor", "you", "are", "in", "near", "beside"
+    };
+
+    /**
+     * Number of rooms in the ring.
+     */
+    private final int rooms;
+
+    /**
+     * Number of exits per ring room, counting EAST and WEST.
+     */
+    private final int branching;
+
+    /**
+     * Fraction of extra exits that are blocked by an object.
+     */
+    private final double blockedRatio;
+
+    /**
+     * Number of FORCED chains.
+     */
+    private final int chains;
+
+    /**
+     * Number of rooms in each FORCED chain.
+     */
+    private final int chainLength;
+
+    /**
+     * Number of objects.
+     */
+    private final int objects;
+
+    /**
+     * Approximate number of characters in each room description.
+     */
+    private final int descriptionLength;
+
+    /**
+     * Seed of the random generator.
+     */
+    private final long seed;
+
+    /**
+     * WorldGenerator Constructor.
+     *
+     * @param rooms number of rooms in the ring, at least 2
+     * @param branching number of exits per ring room, counting EAST and WEST
+     * @param blockedRatio fraction of extra exits blocked by an object
+     * @param chains number of FORCED chains
+     * @param chainLength number of rooms in each FORCED chain
+     * @param objects number of objects
+     * @param descriptionLength approximate number of characters in each room description
+     * @param seed seed of the random generator
+     */
+    public WorldGenerator(int rooms, int branching, double blockedRatio, int chains, int chainLength,
+                          int objects, int descriptionLength, long seed) {
+        if (rooms < 2) throw new IllegalArgumentException("A world needs at least 2 rooms");
+        this.rooms = rooms;
+        this.branching = Math.max(2, Math.min(branching, DIRECTIONS.length + 2));
+        this.blockedRatio = blockedRatio;
+        this.chains = chains;
+        this.chainLength = Math.max(1, chainLength);
+        this.objects = objects;
+        this.descriptionLength = Math.max(1, descriptionLength);
+        this.seed = seed;
+    }
+
+    /**
+     * Writes the game files into a directory, creating it if needed.
+     *
+     * @param directory the game directory
+     * @throws IOException in the case of a file I/O error.
+     */
+    public void generate(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) throw new IOException("Cannot create " + directory);
+        SplittableRandom random = new SplittableRandom(seed);
+        writeRooms(new File(directory, "rooms.txt"), random.split());
+        writeObjects(new File(directory, "objects.txt"), random.split());
+        writeSynonyms(new File(directory, "synonyms.txt"));
+        writeHelp(new File(directory, "help.txt"));
+    }
+
+    /**
+     * Returns the total number of rooms, including chains and the end room.
+     *
+     * @return the number of rooms written to rooms.txt
+     */
+    public int totalRooms() {
+        return rooms + chains * chainLength + 1;
+    }
+
+    /**
+     * Writes rooms.txt.
+     *
+     * @param file the file to write
+     * @param random the random generator
+     * @throws IOException in the case of a file I/O error.
+     */
+    private void writeRooms(File file, SplittableRandom random) throws IOException {
+        int endRoom = totalRooms();
+        try (Writer out = writer(file)) {
+            for (int r = 1; r <= rooms; r++) {
+                writeRoomHeader(out, r, "Room " + r, random);
+                passage(out, "EAST", r % rooms + 1, null);
+                passage(out, "WEST", (r + rooms - 2) % rooms + 1, null);
+
+                // the extra exits use distinct directions, taken from a random offset
+                int start = random.nextInt(DIRECTIONS.length);
+                for (int e = 0; e < branching - 2; e++) {
+                    String direction = DIRECTIONS[(start + e) % DIRECTIONS.length];
+                    int destination = 1 + random.nextInt(rooms);
+                    if (objects > 0 && random.nextDouble() < blockedRatio) {
+                        passage(out, direction, destination, "OBJ" + random.nextInt(objects));
+                        passage(out, direction, 1 + random.nextInt(rooms), null); // fallback when the key is missing
+                    } else {
+                        passage(out, direction, destination, null);
+                    }
+                }
+                if (chains > 0 && r % Math.max(1, rooms / chains) == 0 && r / Math.max(1, rooms / chains) <= chains) {
+                    passage(out, "PLUGH", rooms + (r / Math.max(1, rooms / chains) - 1) * chainLength + 1, null);
+                }
+                if (r == rooms) passage(out, "XYZZY", endRoom, null);
+                out.write('\n');
+            }
+
+            for (int c = 0; c < chains; c++) {
+                for (int i = 0; i < chainLength; i++) {
+                    int r = rooms + c * chainLength + i + 1;
+                    writeRoomHeader(out, r, "Chain " + (c + 1) + " step " + (i + 1), random);
+                    passage(out, "FORCED", i + 1 < chainLength ? r + 1 : 1 + random.nextInt(rooms), null);
+                    out.write('\n');
+                }
+            }
+
+            writeRoomHeader(out, endRoom, "Victory", random);
+            passage(out, "FORCED", 0, null);
+        }
+    }
+
+    /**
+     * Writes the number, name and description of a room.
+     *
+     * @param out where to write
+     * @param number the room number
+     * @param name the room name
+     * @param random the random generator
+     * @throws IOException in the case of a file I/O error.
+     */
+    private void writeRoomHeader(Writer out, int number, String name, SplittableRandom random) throws IOException {
+        out.write(Integer.toString(number));
+        out.write('\n');
+        out.write(name);
+        out.write('\n');
+        int written = 0, lineLength = 0;
+        while (written < descriptionLength) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            if (lineLength > 0 && lineLength + word.length() > 70) {
+                out.write('\n');
+                lineLength = 0;
+            } else if (lineLength > 0) {
+                out.write(' ');
+                lineLength++;
+                written++;
+            }
+            out.write(word);
+            lineLength += word.length();
+            written += word.length();
+        }
+        out.write(".\n-----\n");
+    }
+
+    /**
+     * Writes one line of a passage table.
+     *
+     * @param out where to write
+     * @param direction the direction
+     * @param destination the destination room
+     * @param key the object blocking the passage, or null
+     * @throws IOException in the case of a file I/O error.
+     */
+    private static void passage(Writer out, String direction, int destination, String key) throws IOException {
+        out.write(direction);
+        for (int i = direction.length(); i < 11; i++) out.write(' '); // the loader needs two or more spaces
+        out.write(Integer.toString(destination));
+        if (key != null) {
+            out.write('/');
+            out.write(key);
+        }
+        out.write('\n');
+    }
+
+    /**
+     * Writes objects.txt.
+     *
+     * @param file the file to write
+     * @param random the random generator
+     * @throws IOException in the case of a file I/O error.
+     */
+    private void writeObjects(File file, SplittableRandom random) throws IOException {
+        try (Writer out = writer(file)) {
+            for (int o = 0; o < objects; o++) {
+                if (o > 0) out.write("\n\n");
+                out.write("OBJ" + o + "\n");
+                out.write("a generated object, number " + o + "\n");
+                out.write(Integer.toString(1 + random.nextInt(rooms)));
+            }
+        }
+    }
+
+    /**
+     * Writes synonyms.txt.
+     *
+     * @param file the file to write
+     * @throws IOException in the case of a file I/O error.
+     */
+    private static void writeSynonyms(File file) throws IOException {
+        try (Writer out = writer(file)) {
+            out.write("Q=QUIT\nL=LOOK\nI=INVENTORY\nO=OBJECTS\nGRAB=TAKE\nCATCH=TAKE\nRELEASE=DROP\n");
+            out.write("N=NORTH\nS=SOUTH\nE=EAST\nW=WEST\nU=UP\nD=DOWN\nBACK=OUT\n");
+        }
+    }
+
+    /**
+     * Writes help.txt.
+     *
+     * @param file the file to write
+     * @throws IOException in the case of a file I/O error.
+     */
+    private static void writeHelp(File file) throws IOException {
+        try (Writer out = writer(file)) {
+            out.write("This world was generated for testing.\n\n");
+            out.write("Walk EAST or WEST around the ring of rooms. Other exits lead anywhere,\n");
+            out.write("and some are blocked until you carry the right object.\n");
+            out.write("PLUGH starts a FORCED chain, and XYZZY in the last room ends the game.\n");
+        }
+    }
+
+    /**
+     * Opens a buffered UTF-8 writer.
+     *
+     * @param file the file to write
+     * @return the writer
+     * @throws IOException in the case of a file I/O error.
+     */
+    private static Writer writer(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    /**
+     * The main method. Generates a world.
+     *
+     * @param args the directory, followed by key=value settings
+     * @throws IOException in the case of a file I/O error.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: java tools.WorldGenerator DIR [rooms=N] [branching=N] [blocked=0.0-1.0]"
+                    + " [chains=N] [chainLength=N] [objects=N] [descriptionLength=N] [seed=N]");
+            System.exit(1);
+        }
+        int rooms = 1000, branching = 4, chains = 10, chainLength = 3, objects = 100, descriptionLength = 200;
+        double blocked = 0.1;
+        long seed = 207;
+        for (int i = 1; i < args.length; i++) {
+            String[] setting = args[i].split("=", 2);
+            if (setting.length != 2) throw new IllegalArgumentException("Expected key=value: " + args[i]);
+            switch (setting[0]) {
+                case "rooms": rooms = Integer.parseInt(setting[1]); break;
+                case "branching": branching = Integer.parseInt(setting[1]); break;
+                case "blocked": blocked = Double.parseDouble(setting[1]); break;
+                case "chains": chains = Integer.parseInt(setting[1]); break;
+                case "chainLength": chainLength = Integer.parseInt(setting[1]); break;
+                case "objects": objects = Integer.parseInt(setting[1]); break;
+                case "descriptionLength": descriptionLength = Integer.parseInt(setting[1]); break;
+                case "seed": seed = Long.parseLong(setting[1]); break;
+                default: throw new IllegalArgumentException("Unknown setting: " + setting[0]);
+            }
+        }
+        WorldGenerator generator = new WorldGenerator(rooms, branching, blocked, chains, chainLength, objects, descriptionLength, seed);
+        generator.generate(new File(args[0]));
+        System.out.println("Wrote " + generator.totalRooms() + " rooms and " + objects + " objects to " + args[0]);
+    }
+}
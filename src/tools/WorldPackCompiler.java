@@ -0,0 +1,35 @@
+package tools;
+
+import AdventureModel.WorldPack;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Class WorldPackCompiler. Compiles game directories into world.pack files,
+ * which AdventureGame loads in place of the text files when
+ * LoadOptions.setUsePack is on and the pack is up to date.
+ *
+ * Usage: java tools.WorldPackCompiler DIR [DIR...]
+ */
+public class WorldPackCompiler {
+
+    /**
+     * The main method. Compiles each directory given.
+     *
+     * @param args the game directories
+     * @throws IOException in the case of a file I/O error.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: java tools.WorldPackCompiler DIR [DIR...]");
+            System.exit(1);
+        }
+        for (String directory : args) {
+            long start = System.nanoTime();
+            File pack = WorldPack.compile(new File(directory));
+            System.out.println("Wrote " + pack + " (" + pack.length() + " bytes) in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+    }
+}
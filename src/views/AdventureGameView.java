@@ -32,6 +32,7 @@ import javafx.scene.AccessibleRole;
 import javafx.scene.Node;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.*;
 import java.text.SimpleDateFormat;
 
@@ -39,6 +40,10 @@ import java.text.SimpleDateFormat;
  * Class AdventureGameView.
  *
  * This is the Class that will visualize your model.
+ *
+ * Run with -Dadventure.journal=true to save games as a CommandJournal
+ * (a snapshot plus a log of commands) instead of autosaving a new .ser
+ * file on every room change.
  */
 public class AdventureGameView {
     /**
@@ -46,6 +51,21 @@ public class AdventureGameView {
      */
     AdventureGame model;
 
+    /**
+     * Runs commands against the model.
+     */
+    private GameEngine engine;
+
+    /**
+     * Whether games are saved as a CommandJournal rather than autosaved.
+     */
+    private static final boolean JOURNALING = Boolean.getBoolean("adventure.journal");
+
+    /**
+     * Writes autosaves in the background, off the FX thread, and clears out old ones.
+     */
+    private final SaveStore saveStore = new SaveStore(new File("Games" + File.separator + "Saved"), RetentionPolicy.defaults());
+
     /**
      * Stage on which all is rendered.
      */
@@ -356,6 +376,8 @@ public class AdventureGameView {
         stage.setOnCloseRequest(e -> {
             // Setting this up to stop any playing audio when closing the application window
             stopArticulation();
+            saveStore.close(); // don't lose the last autosave
+            closeJournal();
         });
 
         //save current room
@@ -441,37 +463,35 @@ public class AdventureGameView {
         text = text.strip(); //get rid of white space
         stopArticulation(); //if speaking, stop
 
-        if (text.equalsIgnoreCase("LOOK") || text.equalsIgnoreCase("L")) {
-            String roomDesc = this.model.getPlayer().getCurrentRoom().getRoomDescription();
-            String objectString = this.model.getPlayer().getCurrentRoom().getObjectString();
-            if (!objectString.isEmpty()) roomDescLabel.setText(roomDesc + "\n\nObjects in this room:\n" + objectString);
-            articulateRoomDescription(); //all we want, if we are looking, is to repeat description.
-            return;
-        } else if (text.equalsIgnoreCase("HELP") || text.equalsIgnoreCase("H")) {
-            showInstructions();
-            return;
-        } else if (text.equalsIgnoreCase("COMMANDS") || text.equalsIgnoreCase("C")) {
-            showCommands(); //this is new!  We did not have this command in A1
-            return;
-        }
-        // if user inputs equivalence of "INVENTORY" call show all objects in inventory
-        else if (text.equalsIgnoreCase("INVENTORY") || text.equalsIgnoreCase("I")) {
-            showAllObjects("INVENTORY");
-            return;
-        }
-        // if user inputs equivalence of "OBJECTS" call show all objects in room
-        else if (text.equalsIgnoreCase("OBJECTS") || text.equalsIgnoreCase("O")) {
-            showAllObjects("ROOM"); //this is new!  We did not have this command in A1
-            return;
+        CommandResult result = getEngine().submit(text); //process the command!
+
+        switch (result.getType()) {
+            case LOOK:
+                roomDescLabel.setText(result.getText());
+                articulateRoomDescription(); //all we want, if we are looking, is to repeat description.
+                return;
+            case HELP:
+                showInstructions();
+                return;
+            case COMMANDS:
+                roomDescLabel.setText(result.getText()); //this is new!  We did not have this command in A1
+                return;
+            case INVENTORY:
+                // if user inputs equivalence of "INVENTORY" call show all objects in inventory
+                showAllObjects("INVENTORY");
+                return;
+            case OBJECTS:
+                // if user inputs equivalence of "OBJECTS" call show all objects in room
+                showAllObjects("ROOM"); //this is new!  We did not have this command in A1
+                return;
+            default:
+                break;
         }
 
-        //try to move!
-        String output = this.model.interpretAction(text); //process the command!
-
-        if (output == null || (!output.equals("GAME OVER") && !output.equals("FORCED") && !output.equals("HELP"))) {
-            updateScene(output);
+        if (result.getType() == CommandResult.Type.MOVED || result.getType() == CommandResult.Type.MESSAGE) {
+            updateScene(result.getText());
             updateItems();
-        } else if (output.equals("GAME OVER")) {
+        } else if (result.getType() == CommandResult.Type.GAME_OVER) {
             //print time elapsed on screen
             gameTimer.endTimer();
             updateScene("You took: " +
@@ -479,10 +499,12 @@ public class AdventureGameView {
             updateItems();
             PauseTransition pause = new PauseTransition(Duration.seconds(10));
             pause.setOnFinished(event -> {
+                saveStore.close();
+                closeJournal();
                 Platform.exit();
             });
             pause.play();
-        } else if (output.equals("FORCED")) {
+        } else if (result.getType() == CommandResult.Type.FORCED) {
             //write code here to handle "FORCED" events!
             //Your code will need to display the image in the
             //current room and pause, then transition to
@@ -505,17 +527,65 @@ public class AdventureGameView {
 
 
     /**
-     * showCommands
+     * getEngine
      * __________________________
      *
-     * update the text in the GUI (within roomDescLabel)
-     * to show all the moves that are possible from the
-     * current room.
-     */
-    private void showCommands() {
-        roomDescLabel.setText("You can move in the following directions:\n" + model.getPlayer().getCurrentRoom().getCommands());
+     * Returns the engine for the current model, creating a new
+     * one if the model has been replaced (e.g. by loading a game).
+     *
+     * @return the engine that runs commands against the model
+     */
+    private GameEngine getEngine() {
+        if (engine == null || engine.getModel() != this.model) {
+            closeJournal();
+            engine = new GameEngine(this.model);
+            if (JOURNALING) {
+                File snapshot = new File("Games" + File.separator + "Saved" + File.separator +
+                        new SimpleDateFormat("yyyy.MM.dd.HH.mm.ss").format(new Date()) + CommandJournal.SNAPSHOT_EXTENSION);
+                try {
+                    CommandJournal journal = new CommandJournal(this.model, snapshot,
+                            CommandJournal.DEFAULT_SNAPSHOT_EVERY, CommandJournal.DEFAULT_SNAPSHOT_MILLIS);
+                    journal.setCatalog(SaveCatalog.of(snapshot.getParentFile()));
+                    engine.setJournal(journal);
+                } catch (IOException e) {
+                    System.err.println("Could not start a journal, autosaving instead: " + e.getMessage());
+                }
+            }
+        }
+        return engine;
     }
 
+    /**
+     * closeJournal
+     * __________________________
+     *
+     * Closes the journal of the current engine, if it has one.
+     */
+    private void closeJournal() {
+        if (engine == null || engine.getJournal() == null) return;
+        try {
+            engine.getJournal().close();
+        } catch (IOException e) {
+            System.err.println("Could not close the journal: " + e.getMessage());
+        }
+        engine.setJournal(null);
+    }
+
+    /**
+     * snapshotJournal
+     * __________________________
+     *
+     * Writes a journal snapshot after the game was changed other than
+     * by a command (e.g. by TAKE ALL), since the log could not replay it.
+     */
+    private void snapshotJournal() {
+        if (engine == null || engine.getModel() != this.model || engine.getJournal() == null) return;
+        try {
+            engine.getJournal().snapshot();
+        } catch (IOException e) {
+            System.err.println("Could not write a journal snapshot: " + e.getMessage());
+        }
+    }
 
     /**
      * updateScene
@@ -564,7 +634,7 @@ public class AdventureGameView {
     private void formatText(String textToDisplay) {
         if (textToDisplay == null || textToDisplay.isBlank()) {
             String roomDesc = this.model.getPlayer().getCurrentRoom().getRoomDescription() + "\n";
-            String objectString = this.model.getPlayer().getCurrentRoom().getObjectString();
+            String objectString = this.model.getObjectString(this.model.getPlayer().getCurrentRoom());
             if (objectString != null && !objectString.isEmpty()) roomDescLabel.setText(roomDesc + "\n\nObjects in this room:\n" + objectString);
             else roomDescLabel.setText(roomDesc);
         } else roomDescLabel.setText(textToDisplay);
@@ -585,7 +655,7 @@ public class AdventureGameView {
         int roomNumber = this.model.getPlayer().getCurrentRoom().getRoomNumber();
         String roomImage = this.model.getDirectoryName() + "/room-images/" + roomNumber + ".png";
 
-        Image roomImageFile = new Image(roomImage);
+        Image roomImageFile = ImageCache.shared().get(roomImage, 400); // decoded once, at the size shown
         roomImageView = new ImageView(roomImageFile);
         roomImageView.setPreserveRatio(true);
         roomImageView.setFitWidth(400);
@@ -610,7 +680,7 @@ public class AdventureGameView {
      */
     private Button getButton(AdventureObject o) {
         // Create ImageView with object image
-        Image image = new Image(model.getDirectoryName() + File.separator + "objectImages" + File.separator + o.getName() + ".jpg");
+        Image image = ImageCache.shared().get(model.getDirectoryName() + File.separator + "objectImages" + File.separator + o.getName() + ".jpg", 100);
         ImageView objectImage = new ImageView();
 
         objectImage.setPreserveRatio(true);
@@ -644,7 +714,7 @@ public class AdventureGameView {
     public void updateItems() {
 
         // Get list of objects in current room
-        ArrayList<AdventureObject> roomObjects = model.getPlayer().getCurrentRoom().objectsInRoom;
+        ObjectContainer roomObjects = model.getObjectsInRoom(model.getPlayer().getCurrentRoom());
 
         objectsInRoom.getChildren().clear();        // Empty out objectsInRoom Vbox
 
@@ -657,13 +727,13 @@ public class AdventureGameView {
             objectsInRoom.getChildren().add(objectButton);  // Put object image button in objectsInRoom Vbox
 
             objectButton.setOnAction(e -> {
-                model.interpretAction("TAKE " + o.getName());
+                getEngine().submit("TAKE " + o.getName()); // through the engine, so the journal has it
                 updateItems();
             });
         }
 
         // Get list of objects in player inventory
-        ArrayList<AdventureObject> inventory = model.getPlayer().inventory;
+        ObjectContainer inventory = model.getPlayer().inventory;
 
         objectsInInventory.getChildren().clear();        // Empty out objectsInInventory Vbox
 
@@ -676,7 +746,7 @@ public class AdventureGameView {
             objectsInInventory.getChildren().add(objectButton);    // Put object image button in objectsInInventory Vbox
 
             objectButton.setOnAction(e -> {
-                model.interpretAction("DROP " + o.getName());
+                getEngine().submit("DROP " + o.getName()); // through the engine, so the journal has it
                 updateItems();
             });
         }
@@ -798,7 +868,7 @@ public class AdventureGameView {
         String roomName = this.model.getPlayer().getCurrentRoom().getRoomName();
         String description = this.model.getPlayer().getCurrentRoom().getRoomDescription();
 
-        if (!this.model.getPlayer().getCurrentRoom().getVisited()) {
+        if (!this.model.isVisited(this.model.getPlayer().getCurrentRoom())) {
             musicFile = "./" + adventureName + "/sounds/" + roomName.toLowerCase() + "-long.mp3";
         } else {
             musicFile = "./" + adventureName + "/sounds/" + roomName.toLowerCase() + "-short.mp3" ;
@@ -830,13 +900,14 @@ public class AdventureGameView {
 
 
     /**
-     * This method saves the game when called
+     * This method saves the game when called.
+     * The game state is taken right away but written in the background,
+     * and a quick run of room changes ends up as one write.
+     * Only the last few autosaves are kept; see RetentionPolicy.
      */
     private void autoSaveGame(){
-        //maybe new SimpleDateFormat("yyyy.MM.dd.HH.mm.ss").format(new Date())
-        File gameFile = new File("Games" + File.separator +  "Saved" + File.separator +
-                new SimpleDateFormat("yyyy.MM.dd.HH.mm.ss").format(new Date()) + ".ser");
-        this.model.saveModel(gameFile);
+        if (engine != null && engine.getModel() == this.model && engine.getJournal() != null) return; // the journal has it already
+        saveStore.autosave(this.model);
     }
 
     /**
@@ -888,7 +959,7 @@ public class AdventureGameView {
             updateItems();
         });
 
-        ArrayList<AdventureObject> objList;
+        ObjectContainer objList;
         // get the list of objects in the inventory
         if (location.equals("INVENTORY")){
             objList = model.getPlayer().inventory;
@@ -896,7 +967,7 @@ public class AdventureGameView {
         }
         // get the list of objects in the room
         else {
-            objList = model.getPlayer().getCurrentRoom().objectsInRoom;
+            objList = model.getObjectsInRoom(model.getPlayer().getCurrentRoom());
             showLabel.setText("OBJECTS IN ROOM");
         }
 
@@ -946,7 +1017,7 @@ public class AdventureGameView {
      * @param obj the object to create the button for.
      */
     private Button getObjects(AdventureObject obj){
-        ImageView objImage = new ImageView(new Image(model.getDirectoryName() + File.separator + "objectImages" + File.separator + obj.getName() + ".jpg"));
+        ImageView objImage = new ImageView(ImageCache.shared().get(model.getDirectoryName() + File.separator + "objectImages" + File.separator + obj.getName() + ".jpg", 150));
 
         objImage.setPreserveRatio(true);
         objImage.setFitHeight(150);
@@ -1182,6 +1253,7 @@ public class AdventureGameView {
         TakeAll take = new TakeAll(this.model);
         takeAllButton.setOnAction(e -> {
             take.execute();
+            snapshotJournal();
             buttonClick.play();
             updateItems();
         });
@@ -1194,6 +1266,7 @@ public class AdventureGameView {
         DropAll drop  = new DropAll(this.model);
         dropAllButton.setOnAction(e -> {
             drop.execute();
+            snapshotJournal();
             buttonClick.play();
             updateItems();
         });
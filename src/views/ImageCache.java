@@ -0,0 +1,107 @@
+package views;
+
+import javafx.scene.image.Image;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Class ImageCache. Keeps the room and object pictures that were decoded
+ * lately, so redrawing a room or the inventory does not decode them again.
+ *
+ * Pictures are decoded at the size they are shown at, and kept by path
+ * and size. The cache holds at most so many bytes of decoded pixels
+ * (four bytes a pixel); past that, the pictures used longest ago go.
+ * All views share one cache; use shared().
+ */
+public class ImageCache {
+
+    /**
+     * How many megabytes of pixels the shared cache holds, by default.
+     */
+    private static final int DEFAULT_MAX_MB = 64;
+
+    /**
+     * The cache the views share.
+     */
+    private static final ImageCache SHARED = new ImageCache(Integer.getInteger("adventure.imageCacheMB", DEFAULT_MAX_MB) * 1024L * 1024L);
+
+    /**
+     * The pictures, by path and size, the one used longest ago first.
+     */
+    private final LinkedHashMap<String, Image> images = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * How many bytes of pixels the cache holds at most.
+     */
+    private final long maxBytes;
+
+    /**
+     * How many bytes of pixels the cache holds now.
+     */
+    private long bytes;
+
+    /**
+     * ImageCache Constructor.
+     *
+     * @param maxBytes how many bytes of pixels to hold at most
+     */
+    public ImageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cache the views share.
+     *
+     * @return the shared cache
+     */
+    public static ImageCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns a picture, scaled to fit a square and keeping its shape,
+     * decoding it only if the cache does not have it at that size.
+     *
+     * @param path where the picture is, as for new Image(path)
+     * @param size the side of the square it is shown in
+     * @return the picture; if it cannot be read, one in error, which is not kept
+     */
+    public synchronized Image get(String path, double size) {
+        String key = path + "@" + size;
+        Image image = this.images.get(key);
+        if (image != null) return image;
+
+        image = new Image(path, size, size, true, true);
+        if (image.isError()) return image; // maybe it is there next time
+        this.images.put(key, image);
+        this.bytes += bytesOf(image);
+
+        Iterator<Map.Entry<String, Image>> eldest = this.images.entrySet().iterator();
+        while (this.bytes > this.maxBytes && this.images.size() > 1) {
+            this.bytes -= bytesOf(eldest.next().getValue());
+            eldest.remove();
+        }
+        return image;
+    }
+
+    /**
+     * Returns how many bytes of pixels the cache holds.
+     *
+     * @return the bytes held
+     */
+    public synchronized long getBytes() {
+        return this.bytes;
+    }
+
+    /**
+     * Returns how many bytes of pixels a picture takes, decoded.
+     *
+     * @param image the picture
+     * @return its width times its height times four
+     */
+    private static long bytesOf(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4L;
+    }
+}
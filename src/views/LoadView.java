@@ -2,15 +2,22 @@ package views;
 
 import AdventureModel.AdventureGame;
 import AdventureModel.AdventureLoader;
+import AdventureModel.CommandJournal;
+import AdventureModel.SaveCatalog;
+import AdventureModel.SaveCodec;
+import AdventureModel.SaveHeader;
 import javafx.beans.Observable;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.SelectionMode;
 import javafx.scene.layout.VBox;
 import javafx.scene.media.AudioClip;
@@ -21,6 +28,7 @@ import javafx.stage.Stage;
 import java.io.*;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.Map;
 
 
 /**
@@ -49,6 +57,21 @@ public class LoadView {
      */
     private Button closeWindowButton;
 
+    /**
+     * The button to stop a load that is under way.
+     */
+    private Button cancelLoadButton;
+
+    /**
+     * Shows how far a load has come.
+     */
+    private ProgressBar loadProgress;
+
+    /**
+     * The load under way, or null.
+     */
+    private LoadTask loading;
+
     /**
      * List of game files saved.
      */
@@ -100,20 +123,32 @@ public class LoadView {
         });
         AdventureGameView.makeButtonAccessible(closeWindowButton, "close window", "This is a button to close the load game window", "Use this button to close the load game window.");
 
+        cancelLoadButton = new Button("Cancel Load");
+        cancelLoadButton.setId("cancelLoadButton");
+        cancelLoadButton.setDisable(true); // only while loading
+        cancelLoadButton.setOnAction(e -> {
+            adventureGameView.getButtonSound().play();
+            if (loading != null) loading.cancel();
+        });
+        AdventureGameView.makeButtonAccessible(cancelLoadButton, "cancel load", "This is a button to stop loading a game", "Use this button to stop loading a game and keep playing the current one.");
+
+        loadProgress = new ProgressBar(0);
+        loadProgress.setVisible(false); // only while loading
+        loadProgress.setPrefWidth(300);
+        dialog.setOnHidden(e -> {
+            if (loading != null) loading.cancel(); // nobody is waiting for it any more
+        });
+
         //on selection, do something
         selectGameButton.setOnAction(e -> {
             adventureGameView.getButtonSound().play();
-            try {
-                selectGame(selectGameLabel, GameList);
-            } catch (IOException ex) {
-                throw new RuntimeException(ex);
-            }
+            selectGame(selectGameLabel, GameList);
         });
 
-        VBox selectGameBox = new VBox(10, selectGameLabel, GameList, selectGameButton);
+        VBox selectGameBox = new VBox(10, selectGameLabel, GameList, selectGameButton, loadProgress, cancelLoadButton);
 
         // Default styles which can be modified
-        GameList.setPrefHeight(100);
+        GameList.setPrefHeight(200); // rows have two lines, with the preview
         GameList.setOpacity(adventureGameView.textOpacity);
         selectGameLabel.setStyle(adventureGameView.textColor);
         selectGameLabel.setFont(adventureGameView.textFont);
@@ -123,83 +158,180 @@ public class LoadView {
         selectGameButton.setPrefSize(200, 50);
         selectGameButton.setFont(adventureGameView.textFont);
         selectGameButton.setEffect(adventureGameView.contrast);
+        cancelLoadButton.setStyle("-fx-background-color: #17871b; -fx-text-fill: white;");
+        cancelLoadButton.setPrefSize(200, 50);
+        cancelLoadButton.setFont(adventureGameView.textFont);
+        cancelLoadButton.setEffect(adventureGameView.contrast);
         selectGameLabel.setOpacity(adventureGameView.textOpacity);
         selectGameBox.setAlignment(Pos.CENTER);
         dialogVbox.getChildren().add(selectGameBox);
-        Scene dialogScene = new Scene(dialogVbox, 400, 400);
+        Scene dialogScene = new Scene(dialogVbox, 400, 500);
         dialog.setScene(dialogScene);
         dialog.show();
     }
 
     /**
      * Get Files to display in the on screen ListView
-     * Populate the listView attribute with .ser file names
-     * Files will be located in the Games/Saved directory
+     * Populate the listView attribute with the names of the saved games, newest first.
+     * Files will be located in the Games/Saved directory.
+     * The names and previews come from the SaveCatalog, so no save is opened.
      *
-     * @param listView the ListView containing all the .ser files in the Games/Saved directory.
+     * @param listView the ListView containing all the saves in the Games/Saved directory.
      */
     private void getFiles(ListView<String> listView) {
-        File savedGames = new File("Games/Saved");
-        File[] files = savedGames.listFiles();       // Get list of all files in Games/Saved directory
+        SaveCatalog catalog = SaveCatalog.of(new File("Games/Saved"));
         ObservableList<String> serFiles = FXCollections.observableArrayList();
+        for (Map.Entry<String, SaveHeader> save : catalog.list()) serFiles.add(save.getKey());
+        listView.setItems(serFiles);        // Update listView with the saves
 
-        assert files != null;
+        // each row shows a preview of its save, from the catalog
+        listView.setCellFactory(view -> new ListCell<>() {
+            @Override
+            protected void updateItem(String fileName, boolean empty) {
+                super.updateItem(fileName, empty);
+                setText(empty || fileName == null ? null : preview(fileName, catalog.get(fileName)));
+            }
+        });
+    }
 
-        for (File f: files) {       // Collect all files ending with .ser
-            if (f.getName().endsWith(".ser")) {serFiles.add(f.getName());}
-        }
-        listView.setItems(serFiles);        // Update listView with .ser files
+    /**
+     * Describes a save for the list: its name, and what its header tells.
+     *
+     * @param fileName the name of the save file
+     * @param header its header, or null
+     * @return the text of its row
+     */
+    private static String preview(String fileName, SaveHeader header) {
+        if (header == null) return fileName;
+        String saved = new SimpleDateFormat("yyyy-MM-dd HH:mm").format(new Date(header.getSavedAt()));
+        if (!header.isKnown()) return fileName + "\n" + saved;
+        long minutes = header.getPlayTimeMillis() / 60_000;
+        return fileName + "\n" + header.getGameName() + ": " + header.getRoomName()
+                + " (" + minutes + " min played) - " + saved;
     }
 
     /**
      * Select the Game
      * Try to load a game from the Games/Saved
-     * If successful, stop any articulation and put the name of the loaded file in the selectGameLabel.
-     * If unsuccessful, stop any articulation and start an entirely new game from scratch.
+     * The save is read and checked on a background thread, so the window keeps
+     * going meanwhile; the progress bar shows how far it has come, and the load
+     * can be cancelled, which keeps the current game.
+     * If successful, swap the loaded game in, in one step on the FX thread,
+     * and put the name of the loaded file in the selectGameLabel.
+     * If unsuccessful, start an entirely new game from scratch.
      * In this case, change the selectGameLabel to indicate a new game has been loaded.
      *
      * @param selectGameLabel the label to use to print errors and or successes to the user.
      * @param GameList the ListView to populate
      */
-    private void selectGame(Label selectGameLabel, ListView<String> GameList) throws IOException {
+    private void selectGame(Label selectGameLabel, ListView<String> GameList) {
         adventureGameView.stopArticulation();
+        if (loading != null) return; // one load at a time
         getFiles(GameList);
         filename = GameList.getSelectionModel().getSelectedItem();
-        try {       // Attempt to load selected game
-            adventureGameView.model = loadGame("Games/Saved/" + filename);
-            selectGameLabel.setText("Selected Game: " + filename);
-        }
-        catch (FileNotFoundException | ClassNotFoundException e) {      // If unsuccessful, create a new game from scratch
+        String selected = filename;
+
+        LoadTask task = new LoadTask(new File("Games/Saved/" + selected));
+        loading = task;
+        selectGameButton.setDisable(true);
+        cancelLoadButton.setDisable(false);
+        loadProgress.setVisible(true);
+        loadProgress.progressProperty().bind(task.progressProperty());
+        selectGameLabel.setText("Loading " + selected + "...");
+
+        task.setOnSucceeded(e -> {
+            loaded(task);
+            adventureGameView.model = task.getValue();
+            selectGameLabel.setText("Selected Game: " + selected);
+            adventureGameView.updateScene("");
+            adventureGameView.updateItems();
+        });
+        task.setOnFailed(e -> {      // If unsuccessful, create a new game from scratch
+            loaded(task);
             adventureGameView.model = new AdventureGame("TinyGame");
             selectGameLabel.setText("No save file was loaded. New game created.");
-        }
-        finally {
             adventureGameView.updateScene("");
             adventureGameView.updateItems();
-        }
+        });
+        task.setOnCancelled(e -> {
+            loaded(task);
+            selectGameLabel.setText("Loading cancelled. The current game goes on.");
+        });
+
+        Thread thread = new Thread(task, "save-loader");
+        thread.setDaemon(true);
+        thread.start();
     }
 
     /**
-     * Load the Game from a file
+     * Puts the dialog back the way it was before a load.
      *
-     * @param GameFile file to load
-     * @throws IOException in the case of a file I/O error.
-     * @throws ClassNotFoundException in the case that the class does not exist.
-     * @return loaded Tetris Model
+     * @param task the load that ended
      */
-    public AdventureGame loadGame(String GameFile) throws IOException, ClassNotFoundException {
-        // Reading the object from a file
-        FileInputStream file = null;
-        ObjectInputStream in = null;
-        try {
-            file = new FileInputStream(GameFile);
-            in = new ObjectInputStream(file);
-            return (AdventureGame) in.readObject();
-        } finally {
-            if (in != null) {
-                in.close();
-                file.close();
+    private void loaded(LoadTask task) {
+        if (loading == task) loading = null;
+        loadProgress.progressProperty().unbind();
+        loadProgress.setVisible(false);
+        selectGameButton.setDisable(false);
+        cancelLoadButton.setDisable(true);
+    }
+
+    /**
+     * Class LoadTask. Reads and checks a save in the background, reporting
+     * how much of the file has been read. Its value is the loaded game,
+     * which nothing else has seen yet; it fails if the save is missing,
+     * damaged or does not fit its world.
+     */
+    private static class LoadTask extends Task<AdventureGame> {
+
+        /**
+         * How much is read at a time.
+         */
+        private static final int CHUNK_SIZE = 64 * 1024;
+
+        /**
+         * The save to load.
+         */
+        private final File saveFile;
+
+        /**
+         * LoadTask Constructor.
+         *
+         * @param saveFile the save to load
+         */
+        LoadTask(File saveFile) {
+            this.saveFile = saveFile;
+        }
+
+        /**
+         * Loads the save. Reading the file is most of the work; the last
+         * part of the progress is decoding and checking it.
+         *
+         * @return the loaded game, or null if cancelled
+         * @throws IOException in the case of a file I/O error, or a damaged save.
+         */
+        @Override
+        protected AdventureGame call() throws IOException {
+            if (this.saveFile.getName().endsWith(CommandJournal.SNAPSHOT_EXTENSION)) {
+                updateProgress(-1, 1); // replaying the journal has no progress to show
+                return CommandJournal.restore(this.saveFile);
+            }
+            long size = this.saveFile.length();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) Math.min(size, Integer.MAX_VALUE - 8));
+            try (InputStream in = new FileInputStream(this.saveFile)) {
+                byte[] chunk = new byte[CHUNK_SIZE];
+                for (int n; (n = in.read(chunk)) > 0; ) {
+                    if (isCancelled()) return null;
+                    bytes.write(chunk, 0, n);
+                    updateProgress(bytes.size() * 0.9, Math.max(size, 1));
+                }
+            }
+            AdventureGame game = SaveCodec.decodeAny(bytes.toByteArray()); // checks it fits its world
+            if (game.getPlayer() == null || game.getPlayer().getCurrentRoom() == null) {
+                throw new InvalidObjectException("The save has no player");
             }
+            updateProgress(1, 1);
+            return isCancelled() ? null : game;
         }
     }
 
@@ -1,5 +1,6 @@
 package views;
 
+import AdventureModel.SaveCatalog;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -147,6 +148,7 @@ public class SaveView {
         else if (gameFile.exists()) {saveFileErrorLabel.setText(saveFileExistsError);}
         else {
             adventureGameView.model.saveModel(gameFile);
+            SaveCatalog.of(gameFile.getParentFile()).record(gameFile); // so the load menu lists it without opening it
             saveFileErrorLabel.setText(saveFileSuccess);
         }
     }
@@ -0,0 +1,61 @@
+package AdventureModel;
+
+import commands.TakeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class CommandJournalTest. Plays a journaled game the way the view does,
+ * with typed commands, object buttons (TAKE and DROP sent to the engine)
+ * and TAKE ALL (a snapshot after the change), and checks that restoring
+ * the journal gives the same game.
+ *
+ * Runs from src, as SaveCodecTest does; see there for the commands.
+ */
+public class CommandJournalTest {
+
+    /**
+     * A directory for the journal files.
+     */
+    @TempDir
+    Path saves;
+
+    /**
+     * Every command and object move is back after a restore, whether the log was closed or not.
+     */
+    @Test
+    public void restoresCommandsAndObjectMoves() throws IOException {
+        AdventureGame game = new AdventureGame(World.load(new File("Games/TinyGame"), LoadOptions.defaults()));
+        GameEngine engine = new GameEngine(game);
+        File snapshot = this.saves.resolve("game" + CommandJournal.SNAPSHOT_EXTENSION).toFile();
+        CommandJournal journal = new CommandJournal(game, snapshot, CommandJournal.DEFAULT_SNAPSHOT_EVERY, CommandJournal.DEFAULT_SNAPSHOT_MILLIS);
+        engine.setJournal(journal);
+
+        engine.submit("TAKE BIRD"); // the bird's button
+        engine.submit("west");
+        engine.submit("DROP BIRD"); // the bird's button in the inventory
+        engine.submit("TAKE CHEST");
+        engine.submit("EAST");
+        engine.submit("IN");
+        new TakeAll(game).execute(); // the TAKE ALL button
+        journal.snapshot();
+        engine.submit("SOUTH");
+        engine.submit("DROP CHEST");
+        engine.submit("LOOK");
+
+        assertEquals(1, game.getPlayer().getCurrentRoom().getRoomNumber());
+        assertEquals("[BOOK]", game.getPlayer().getInventory().toString());
+        assertEquals("a pirate chest", game.getObjectString(game.getRooms().get(1)));
+        assertEquals("a water bird", game.getObjectString(game.getRooms().get(2)));
+
+        SaveCodecTest.assertSameState(game, CommandJournal.restore(snapshot)); // as after a crash
+        journal.close();
+        SaveCodecTest.assertSameState(game, CommandJournal.restore(snapshot));
+    }
+}
@@ -0,0 +1,151 @@
+package AdventureModel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class SaveCodecTest. Checks that saves round-trip through SaveCodec,
+ * and that the saves checked in under Games/Saved, written by the
+ * first version of the game, still load.
+ *
+ * Saves name their game directory relative to src, so the tests run
+ * from there. With the game compiled to out, as the app is, and the
+ * JUnit 5 console launcher (junit-platform-console-standalone.jar):
+ * <pre>
+ * cd src
+ * javac -d ../out/test -cp ../out:junit-platform-console-standalone.jar ../test/AdventureModel/*.java
+ * java -jar junit-platform-console-standalone.jar execute -cp ../out:../out/test --select-package AdventureModel
+ * </pre>
+ */
+public class SaveCodecTest {
+
+    /**
+     * A save of the first version of the game, made at the start of TinyGame.
+     */
+    private static final File BASELINE_SAVE = new File("Games/Saved/2023.12.05.14.07.58.ser");
+
+    /**
+     * A directory for the worlds the tests make.
+     */
+    @TempDir
+    Path worlds;
+
+    /**
+     * A checked-in save loads onto TinyGame as it was saved, and saves and loads again the same.
+     */
+    @Test
+    public void loadsBaselineSave() throws IOException {
+        AdventureGame game = SaveCodec.read(BASELINE_SAVE);
+        assertEquals("Games/TinyGame", game.getDirectoryName());
+        assertEquals(1, game.getPlayer().getCurrentRoom().getRoomNumber());
+        assertTrue(game.getPlayer().getInventory().isEmpty());
+        assertEquals("a water bird", game.getObjectString(game.getRooms().get(1)));
+        assertEquals("a pirate chest", game.getObjectString(game.getRooms().get(2)));
+
+        AdventureGame again = SaveCodec.decode(SaveCodec.encode(game));
+        assertSameState(game, again);
+    }
+
+    /**
+     * What the player changed comes back: the room, the inventory, the objects of each room and the rooms visited.
+     */
+    @Test
+    public void roundTripsPlayedGame() throws IOException {
+        AdventureGame game = new AdventureGame(World.load(new File("Games/TinyGame"), LoadOptions.defaults()));
+        GameEngine engine = new GameEngine(game);
+        for (String command : new String[]{"TAKE BIRD", "WEST", "TAKE CHEST", "EAST", "DROP BIRD", "IN"}) engine.submit(command);
+
+        AdventureGame loaded = SaveCodec.decode(SaveCodec.encode(game));
+        assertSameState(game, loaded);
+        assertTrue(loaded.isVisited(loaded.getRooms().get(2)));
+    }
+
+    /**
+     * Negative room numbers are saved and loaded, as the player's room and as visited rooms.
+     */
+    @Test
+    public void roundTripsNegativeRoomNumbers() throws IOException {
+        File directory = world("negative",
+                "1\nHall\nA hall.\n-----\nEAST      -5\n\n-5\nCellar\nA cellar.\n-----\nWEST      1\n",
+                "LAMP\na lamp\n-5\n");
+        AdventureGame game = new AdventureGame(World.load(directory, LoadOptions.defaults()));
+        assertTrue(game.movePlayer("EAST"));
+        assertTrue(game.getPlayer().takeObject("LAMP"));
+        assertTrue(game.movePlayer("WEST"));
+        assertTrue(game.movePlayer("EAST"));
+
+        AdventureGame loaded = SaveCodec.decode(SaveCodec.encode(game));
+        assertEquals(-5, loaded.getPlayer().getCurrentRoom().getRoomNumber());
+        assertTrue(loaded.isVisited(loaded.getRooms().get(-5)));
+        assertSameState(game, loaded);
+    }
+
+    /**
+     * Objects that share a name each come back as themselves.
+     */
+    @Test
+    public void keepsObjectsWithTheSameName() throws IOException {
+        File directory = world("keys",
+                "1\nHall\nA hall.\n-----\nEAST      2\n\n2\nShed\nA shed.\n-----\nWEST      1\n",
+                "KEY\na brass key\n1\n\nKEY\nan iron key\n2\n");
+        AdventureGame game = new AdventureGame(World.load(directory, LoadOptions.defaults()));
+        assertTrue(game.getPlayer().takeObject("KEY"));
+        assertTrue(game.movePlayer("EAST"));
+        game.getPlayer().dropObject("KEY");
+
+        AdventureGame loaded = SaveCodec.decode(SaveCodec.encode(game));
+        assertEquals("an iron key, a brass key", loaded.getObjectString(loaded.getRooms().get(2)));
+        assertSameState(game, loaded);
+    }
+
+    /**
+     * A game that cannot be saved fails when it is saved, not when it is loaded.
+     */
+    @Test
+    public void rejectsObjectsNotInTheWorld() throws IOException {
+        AdventureGame game = new AdventureGame(World.load(new File("Games/TinyGame"), LoadOptions.defaults()));
+        game.getPlayer().addToInventory(new AdventureObject("GHOST", "a ghost", null));
+        assertThrows(IllegalArgumentException.class, () -> SaveCodec.encode(game));
+    }
+
+    /**
+     * Writes a world of one or more rooms to a directory of its own.
+     *
+     * @param name the name of the directory
+     * @param rooms the contents of rooms.txt
+     * @param objects the contents of objects.txt
+     * @return the directory
+     */
+    private File world(String name, String rooms, String objects) throws IOException {
+        Path directory = Files.createDirectory(this.worlds.resolve(name));
+        Files.writeString(directory.resolve("rooms.txt"), rooms, StandardCharsets.UTF_8);
+        Files.writeString(directory.resolve("objects.txt"), objects, StandardCharsets.UTF_8);
+        Files.writeString(directory.resolve("synonyms.txt"), "E=EAST\n", StandardCharsets.UTF_8);
+        Files.writeString(directory.resolve("help.txt"), "Help.\n", StandardCharsets.UTF_8);
+        return directory.toFile();
+    }
+
+    /**
+     * Checks that two games of the same world are in the same state.
+     *
+     * @param expected the game as it was saved
+     * @param actual the game as it was loaded
+     */
+    static void assertSameState(AdventureGame expected, AdventureGame actual) {
+        assertEquals(expected.getPlayer().getCurrentRoom().getRoomNumber(), actual.getPlayer().getCurrentRoom().getRoomNumber());
+        assertEquals(expected.getPlayer().getInventory(), actual.getPlayer().getInventory());
+        for (Room room : expected.getRooms().values()) {
+            Room other = actual.getRooms().get(room.getRoomNumber());
+            assertEquals(expected.getObjectString(room), actual.getObjectString(other), "objects in room " + room.getRoomNumber());
+            assertEquals(expected.isVisited(room), actual.isVisited(other), "visited room " + room.getRoomNumber());
+        }
+    }
+}
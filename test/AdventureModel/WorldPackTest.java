@@ -0,0 +1,131 @@
+package AdventureModel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class WorldPackTest. Checks that a world loaded from its world.pack is
+ * the world loaded from its text files: same rooms, passages, objects,
+ * object order and fingerprint, so a save made on one loads on the other.
+ *
+ * Runs from src, as SaveCodecTest does; see there for the commands.
+ */
+public class WorldPackTest {
+
+    /**
+     * A directory for the copies of TinyGame the tests make.
+     */
+    @TempDir
+    Path games;
+
+    /**
+     * TinyGame loads the same from text, in parallel, and from its pack.
+     */
+    @Test
+    public void packLoadsTinyGameAsText() throws IOException {
+        File directory = copyOfTinyGame("tiny", "");
+        assertSameWorlds(directory);
+    }
+
+    /**
+     * Objects that share a name keep their place in their room, after the objects before them.
+     */
+    @Test
+    public void packKeepsOrderOfObjectsWithTheSameName() throws IOException {
+        File directory = copyOfTinyGame("birds", "\n\nBIRD\na second water bird\n2\n");
+        World text = World.read(directory, LoadOptions.defaults());
+        assertEquals("a pirate chest, a second water bird", new AdventureGame(text).getObjectString(text.getRooms().get(2)));
+        assertSameWorlds(directory);
+    }
+
+    /**
+     * Loads a world from text, in parallel and from a freshly compiled pack,
+     * and checks that the three are the same.
+     *
+     * @param directory the game directory
+     */
+    private static void assertSameWorlds(File directory) throws IOException {
+        World text = World.read(directory, LoadOptions.defaults());
+        World parallel = World.read(directory, LoadOptions.defaults().setParallel(true));
+        WorldPack.compile(directory);
+        assertTrue(WorldPack.isCurrent(directory));
+        World pack = World.read(directory, LoadOptions.defaults().setUsePack(true));
+
+        assertSameWorld(text, parallel);
+        assertSameWorld(text, pack);
+    }
+
+    /**
+     * Checks that two worlds have the same rooms, passages, objects and fingerprint.
+     *
+     * @param expected the world loaded from text
+     * @param actual the world loaded another way
+     */
+    private static void assertSameWorld(World expected, World actual) {
+        assertEquals(expected.getRooms().size(), actual.getRooms().size());
+        for (Room room : expected.getRooms().values()) {
+            Room other = actual.getRooms().get(room.getRoomNumber());
+            assertNotNull(other, "room " + room.getRoomNumber());
+            assertEquals(room.getRoomName(), other.getRoomName());
+            assertEquals(room.getRoomDescription(), other.getRoomDescription());
+            assertEquals(passages(room), passages(other), "passages of room " + room.getRoomNumber());
+            assertEquals(objects(room), objects(other), "objects of room " + room.getRoomNumber());
+        }
+        assertEquals(expected.getObjectCount(), actual.getObjectCount());
+        assertEquals(expected.getFingerprint(), actual.getFingerprint());
+    }
+
+    /**
+     * Describes the passages of a room, in order.
+     *
+     * @param room the room
+     * @return direction, destination and key of each passage
+     */
+    private static String passages(Room room) {
+        StringBuilder text = new StringBuilder();
+        for (Passage passage : room.getMotionTable().getDirection()) {
+            text.append(passage.getDirection()).append(' ').append(passage.getDestinationRoom()).append(' ').append(passage.getKeyName()).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Describes the objects a room starts with, in order.
+     *
+     * @param room the room
+     * @return ID, name and description of each object
+     */
+    private static String objects(Room room) {
+        StringBuilder text = new StringBuilder();
+        for (AdventureObject object : room.objectsInRoom) {
+            text.append(object.getId()).append(' ').append(object.getName()).append(' ').append(object.getDescription()).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Copies the text files of TinyGame to a directory of their own.
+     *
+     * @param name the name of the directory
+     * @param moreObjects text to add at the end of objects.txt
+     * @return the directory
+     */
+    private File copyOfTinyGame(String name, String moreObjects) throws IOException {
+        Path source = new File("Games/TinyGame").toPath();
+        Path directory = Files.createDirectory(this.games.resolve(name));
+        for (String file : new String[]{"rooms.txt", "objects.txt", "synonyms.txt", "help.txt"}) {
+            Files.copy(source.resolve(file), directory.resolve(file));
+        }
+        Files.writeString(directory.resolve("objects.txt"), moreObjects, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        return directory.toFile();
+    }
+}
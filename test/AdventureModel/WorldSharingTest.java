@@ -0,0 +1,56 @@
+package AdventureModel;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class WorldSharingTest. Checks that what the sessions of a World share
+ * cannot be changed by one of them: the rooms, and the symbol table.
+ *
+ * Runs from src, as SaveCodecTest does; see there for the commands.
+ */
+public class WorldSharingTest {
+
+    /**
+     * The rooms of a loaded world cannot be added, replaced or removed.
+     */
+    @Test
+    public void roomsOfLoadedWorldAreFrozen() throws IOException {
+        World world = World.read(new File("Games/TinyGame"), LoadOptions.defaults());
+        RoomTable rooms = new AdventureGame(world).getRooms();
+        Room first = rooms.get(1);
+        assertTrue(rooms.isFrozen());
+        assertThrows(UnsupportedOperationException.class, () -> rooms.put(1, new Room("Elsewhere", 1, "Not here.", "x")));
+        assertThrows(UnsupportedOperationException.class, () -> rooms.remove(2));
+        assertThrows(UnsupportedOperationException.class, rooms::clear);
+        assertThrows(UnsupportedOperationException.class, () -> rooms.values().remove(first));
+        assertSame(first, world.getRooms().get(1));
+        assertEquals(10, world.getRooms().size());
+    }
+
+    /**
+     * A verb one session registers is known to that session only, and the shared symbol table does not grow.
+     */
+    @Test
+    public void sessionVerbsStayInTheirSession() throws IOException {
+        World world = World.read(new File("Games/TinyGame"), LoadOptions.defaults());
+        int symbols = world.getSymbols().size();
+        AdventureGame one = new AdventureGame(world);
+        AdventureGame other = new AdventureGame(world);
+        other.getTokenizer(); // copied before the verb is added, as a running session's would be
+
+        one.registerVerb("DANCE", (game, command) -> new CommandResult(CommandResult.Type.MESSAGE, "YOU DANCE."));
+        assertEquals("YOU DANCE.", one.interpretAction("dance"));
+        assertEquals(-1, world.getSymbols().lookup("DANCE"));
+        assertEquals(symbols, world.getSymbols().size());
+
+        assertTrue(one.getTokenizer().tokenize("DANCE").symbol(0) < -1);
+        assertEquals(-1, other.getTokenizer().tokenize("DANCE").symbol(0));
+        assertEquals("INVALID COMMAND.", other.interpretAction("DANCE"));
+        assertEquals(-1, new AdventureGame(world).getTokenizer().tokenize("DANCE").symbol(0));
+    }
+}